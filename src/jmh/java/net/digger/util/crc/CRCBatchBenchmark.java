@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * JMH benchmarks of many short records, calculated one at a time and as a batch.
+ * <p>
+ * The {@code bytes} counter is in bytes per microsecond, which is MB/s.
+ * 
+ * @author walton
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CRCBatchBenchmark {
+	@Param({"CRC16", "CRC16_CCITT", "CRC32", "CRC64_XZ"})
+	public String configName;
+
+	@Param({"16", "64", "200"})
+	public int recordSize;
+
+	@Param({"4096"})
+	public int records;
+
+	private CRC<CRCConfig, CRCComputer> crc;
+	private byte[] data;
+	private byte[][] messages;
+	private int[] offsets;
+	private int[] lengths;
+	private long[] results;
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		crc = new CRC<>((CRCConfig)CRC.class.getField(configName).get(null));
+		data = new byte[records * recordSize];
+		new Random(recordSize).nextBytes(data);
+		messages = new byte[records][];
+		offsets = new int[records];
+		lengths = new int[records];
+		results = new long[records];
+		for (int i=0; i<records; i++) {
+			offsets[i] = i * recordSize;
+			lengths[i] = recordSize;
+			messages[i] = new byte[recordSize];
+			System.arraycopy(data, offsets[i], messages[i], 0, recordSize);
+		}
+	}
+
+	@Benchmark
+	public long[] oneAtATime(CRCBenchmark.Bytes counter) {
+		counter.bytes += data.length;
+		for (int i=0; i<records; i++) {
+			results[i] = crc.calculate(data, offsets[i], lengths[i]);
+		}
+		return results;
+	}
+
+	@Benchmark
+	public long[] batchArrays(CRCBenchmark.Bytes counter) {
+		counter.bytes += data.length;
+		crc.calculate(messages, results);
+		return results;
+	}
+
+	@Benchmark
+	public long[] batchIndex(CRCBenchmark.Bytes counter) {
+		counter.bytes += data.length;
+		crc.calculate(data, offsets, lengths, results);
+		return results;
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * JMH benchmarks of the CRC API, for every preset configuration and a range of message sizes.
+ * <p>
+ * The benchmark methods are shared by {@link CRCLatencyBenchmark}, which reports
+ * ns/op, and {@link CRCThroughputBenchmark}, which reports MB/s.  The exec
+ * configuration in the {@code benchmark} profile adds the GC profiler, which
+ * reports the allocation rate.
+ * 
+ * @author walton
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class CRCBenchmark {
+	@Param({"Checksum8", "Checksum16", "Checksum32",
+		"CRC16", "CRC16_Modbus", "CRC16_CCITT", "CRC16_CCITT_XModem", "CRC16_CCITT_0x1D0F",
+		"CRC16_CCITT_Kermit", "CRC16_DNP", "CRC32"})
+	public String configName;
+
+	@Param({"8", "64", "512", "4096", "65536", "1048576", "67108864"})
+	public int size;
+
+	private Target<?, ?> target;
+	private byte[] message;
+
+	/**
+	 * Typed holder for the configuration under test.
+	 */
+	private static class Target<T extends Config<U, T>, U extends Computer<T, U>> {
+		private final T config;
+		private final CRC<T, U> crc;
+		private final CRCDigest<T, U> digest;
+
+		private Target(T config) {
+			this.config = config;
+			this.crc = new CRC<T, U>(config);
+			this.digest = crc.newDigest();
+		}
+
+		private long staticCalculate(byte[] message) {
+			return CRC.calculate(config, message);
+		}
+
+		private long staticUpdate(byte[] message) {
+			Long value = null;
+			for (byte b : message) {
+				value = CRC.update(config, value, b);
+			}
+			return value;
+		}
+
+		private long instanceUpdate(byte[] message) {
+			Long value = null;
+			for (byte b : message) {
+				value = crc.update(value, b);
+			}
+			return value;
+		}
+
+		private long digest(byte[] message) {
+			digest.reset();
+			digest.update(message, 0, message.length);
+			return digest.getValue();
+		}
+	}
+
+	/**
+	 * Counts the message bytes processed, so throughput can be reported in bytes.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Bytes {
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		target = newTarget((Config<?, ?>)CRC.class.getField(configName).get(null));
+		message = new byte[size];
+		new Random(size).nextBytes(message);
+	}
+
+	@Benchmark
+	public long staticCalculate(Bytes counter) {
+		counter.bytes += size;
+		return target.staticCalculate(message);
+	}
+
+	@Benchmark
+	public long instanceCalculate(Bytes counter) {
+		counter.bytes += size;
+		return target.crc.calculate(message);
+	}
+
+	@Benchmark
+	public long staticUpdate(Bytes counter) {
+		counter.bytes += size;
+		return target.staticUpdate(message);
+	}
+
+	@Benchmark
+	public long instanceUpdate(Bytes counter) {
+		counter.bytes += size;
+		return target.instanceUpdate(message);
+	}
+
+	@Benchmark
+	public long digest(Bytes counter) {
+		counter.bytes += size;
+		return target.digest(message);
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static Target<?, ?> newTarget(Config config) {
+		return new Target(config);
+	}
+}
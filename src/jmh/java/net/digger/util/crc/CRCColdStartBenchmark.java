@@ -0,0 +1,70 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * JMH benchmark of the time to the first CRC in a new JVM.
+ * <p>
+ * Each fork calculates one CRC with each of the wider presets, so the time
+ * includes loading the classes and building every table.
+ * 
+ * @author walton
+ */
+@State(Scope.Benchmark)
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CRCColdStartBenchmark {
+	private byte[] message;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		message = new byte[64];
+	}
+
+	@Benchmark
+	public long firstCRC() {
+		CRCConfig[] configs = {
+			CRC.CRC16, CRC.CRC16_CCITT, CRC.CRC16_CCITT_Kermit, CRC.CRC16_DNP,
+			CRC.CRC32, CRC.CRC32C, CRC.CRC64_ECMA, CRC.CRC64_XZ, CRC.CRC64_GO_ISO,
+		};
+		long result = 0;
+		for (CRCConfig config : configs) {
+			result ^= new CRC<CRCConfig, CRCComputer>(config).calculate(message);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * JMH benchmark of a mix of CRC configurations used in turn, as in a gateway
+ * handling several protocols, with and without specialized engine classes.
+ * <p>
+ * Each trial runs in its own fork, so setting the system property in the
+ * setup takes effect before any engine is created.  The {@code bytes}
+ * counter is in bytes per microsecond, which is MB/s.
+ * 
+ * @author walton
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CRCMixedBenchmark {
+	@Param({"false", "true"})
+	public String specialize;
+
+	@Param({"64", "1024"})
+	public int size;
+
+	private CRC<?, ?>[] crcs;
+	private byte[] message;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		System.setProperty("net.digger.util.crc.specialize", specialize);
+		CRCConfig[] configs = {
+			CRC.CRC16, CRC.CRC16_Modbus, CRC.CRC16_CCITT, CRC.CRC16_CCITT_Kermit,
+			CRC.CRC16_DNP, CRC.CRC64_ECMA, CRC.CRC64_XZ, CRC.CRC64_GO_ISO,
+		};
+		crcs = new CRC<?, ?>[configs.length];
+		for (int i=0; i<configs.length; i++) {
+			crcs[i] = new CRC<CRCConfig, CRCComputer>(configs[i]);
+		}
+		message = new byte[size];
+		new Random(size).nextBytes(message);
+	}
+
+	@Benchmark
+	public long mixed(CRCBenchmark.Bytes counter) {
+		counter.bytes += (long)message.length * crcs.length;
+		long result = 0;
+		for (CRC<?, ?> crc : crcs) {
+			result ^= crc.calculate(message);
+		}
+		return result;
+	}
+}
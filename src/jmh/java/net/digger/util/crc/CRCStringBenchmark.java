@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * JMH benchmark of the CRC of a string, encoded straight into the register,
+ * against encoding it into an array first.
+ * <p>
+ * The strings are mostly ASCII, with one non-ASCII character in every 32,
+ * like log lines and keys.  Run with the GC profiler to compare allocation.
+ * 
+ * @author walton
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CRCStringBenchmark {
+	@Param({"CRC16_CCITT", "CRC32", "CRC64_XZ"})
+	public String configName;
+
+	@Param({"UTF-8", "ISO-8859-1"})
+	public String charsetName;
+
+	@Param({"16", "128", "1024"})
+	public int size;
+
+	private CRC<CRCConfig, CRCComputer> crc;
+	private Charset charset;
+	private String message;
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		crc = new CRC<>((CRCConfig)CRC.class.getField(configName).get(null));
+		charset = Charset.forName(charsetName);
+		Random random = new Random(size);
+		StringBuilder builder = new StringBuilder(size);
+		for (int i=0; i<size; i++) {
+			builder.append((i % 32 == 31) ? (char)(0xA0 + random.nextInt(0x60)) : (char)(0x20 + random.nextInt(0x5F)));
+		}
+		message = builder.toString();
+	}
+
+	@Benchmark
+	public long encoded() {
+		return crc.calculate(message, charset);
+	}
+
+	@Benchmark
+	public long getBytes() {
+		return crc.calculate(message.getBytes(charset));
+	}
+}
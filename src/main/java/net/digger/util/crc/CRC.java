@@ -16,7 +16,17 @@
  */
 package net.digger.util.crc;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
 import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.computer.ComputerRegistry;
 import net.digger.util.crc.config.CRCConfig;
 import net.digger.util.crc.config.ChecksumConfig;
 import net.digger.util.crc.config.Config;
@@ -38,6 +48,13 @@ import net.digger.util.crc.config.Config;
  * <p>
  * This might be a good source for more CRC parameters:<br>
  * <a href="http://reveng.sourceforge.net/crc-catalogue/">http://reveng.sourceforge.net/crc-catalogue/</a>
+ * <p>
+ * The table-driven method delegates CRC-32 (and CRC-32C on Java 9 or later)
+ * to the JDK's own implementations, which use the processor's CRC
+ * instructions where available.  Set the system property
+ * {@code net.digger.util.crc.intrinsics} to {@code false} to disable this.
+ * <p>
+ * The work done with each configuration can be counted; see {@link CRCMetrics}.
  * 
  * @author walton
  * 
@@ -50,6 +67,9 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 	public static final ChecksumConfig Checksum8 = new ChecksumConfig("8-bit Checksum", 8);
 	public static final ChecksumConfig Checksum16 = new ChecksumConfig("16-bit Checksum", 16);
 	public static final ChecksumConfig Checksum32 = new ChecksumConfig("32-bit Checksum", 32);
+	public static final CRCConfig CRC8_SMBus = new CRCConfig("CRC-8 SMBus", 8, 0x07, 0x00, 0x00, false, false, false);
+	public static final CRCConfig CRC8_Maxim = new CRCConfig("CRC-8 Maxim", 8, 0x31, 0x00, 0x00, true, true, false);
+	public static final CRCConfig CRC8_AUTOSAR = new CRCConfig("CRC-8 AUTOSAR", 8, 0x2F, 0xFF, 0xFF, false, false, false);
 	public static final CRCConfig CRC16 = new CRCConfig("CRC-16", 16, 0x8005, 0x0000, 0x0000, true, true, false);
 	public static final CRCConfig CRC16_Modbus = new CRCConfig("CRC-16 Modbus", 16, 0x8005, 0xFFFF, 0x0000, true, true, false);
 	public static final CRCConfig CRC16_CCITT = new CRCConfig("CRC-CCITT", 16, 0x1021, 0xFFFF, 0x0000, false, false, false);
@@ -58,30 +78,51 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 	public static final CRCConfig CRC16_CCITT_Kermit = new CRCConfig("CRC-CCITT Kermit", 16, 0x1021, 0x0000, 0x0000, true, true, true);
 	public static final CRCConfig CRC16_DNP = new CRCConfig("CRC-DNP", 16, 0x3D65, 0x0000, 0xFFFF, true, true, true);
 	public static final CRCConfig CRC32 = new CRCConfig("CRC-32", 32, 0x04C11DB7L, 0xFFFFFFFFL, 0xFFFFFFFFL, true, true, false);
+	public static final CRCConfig CRC32C = new CRCConfig("CRC-32C", 32, 0x1EDC6F41L, 0xFFFFFFFFL, 0xFFFFFFFFL, true, true, false);
+	public static final CRCConfig CRC64_ECMA = new CRCConfig("CRC-64 ECMA-182", 64, 0x42F0E1EBA9EA3693L, 0x0000000000000000L, 0x0000000000000000L, false, false, false);
+	public static final CRCConfig CRC64_XZ = new CRCConfig("CRC-64 XZ", 64, 0x42F0E1EBA9EA3693L, 0xFFFFFFFFFFFFFFFFL, 0xFFFFFFFFFFFFFFFFL, true, true, false);
+	public static final CRCConfig CRC64_GO_ISO = new CRCConfig("CRC-64 GO-ISO", 64, 0x000000000000001BL, 0xFFFFFFFFFFFFFFFFL, 0xFFFFFFFFFFFFFFFFL, true, true, false);
+
+
+	/**
+	 * Default size of the parts a message is split into for parallel calculation.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 20;
 
 	
 	// ##### Internal instance data
 	
 	private final T config;
 	private final U computer;
+	/**
+	 * Register value left after a message followed by its CRC, once calculated.
+	 */
+	private long residue;
+	/**
+	 * Whether {@link #residue} has been calculated.  Written after it, so a
+	 * thread which sees this set also sees the residue.
+	 */
+	private volatile boolean residueKnown;
+	/**
+	 * Counters of the work done, or {@code null} if not enabled.
+	 */
+	private final CRCMetrics.Counters metrics;
 
 	// ##### Instance constructor
 
 	/**
 	 * Create an instance with the given CRC config.
 	 * <p>
-	 * This is only required to use the faster table-driven method.
+	 * This is only required to use the faster table-driven method.  The
+	 * lookup tables are shared with all other instances using the same
+	 * table parameters.
 	 * 
 	 * @param config CRC configuration to use.
 	 */
 	public CRC(T config) {
-		try {
-			this.config = config;
-			this.computer = config.computer.newInstance();
-			computer.fastInit(config);
-		} catch (InstantiationException | IllegalAccessException e) {
-			throw new IllegalArgumentException("Unable to create instance of provided CRC computer class.", e);
-		}
+		this.config = config;
+		this.computer = ComputerRegistry.getFast(config);
+		this.metrics = CRCMetrics.counters(config);
 	}
 
 
@@ -110,12 +151,50 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 	 * @return The CRC of the message.
 	 */
 	public static <T extends Config<U, T>, U extends Computer<T, U>> long calculate(T config, byte[] message) {
-		try {
-			U computer = config.computer.newInstance();
-			return computer.slow(config, message);
-		} catch (InstantiationException | IllegalAccessException e) {
-			throw new IllegalArgumentException("Unable to create instance of provided CRC computer class.", e);
+		return calculate(config, message, 0, message.length);
+	}
+	
+	/**
+	 * Compute the CRC of part of an array using the slower computational method.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The CRC of the message.
+	 */
+	public static <T extends Config<U, T>, U extends Computer<T, U>> long calculate(T config, byte[] message, int offset, int length) {
+		CRCMetrics.Counters counters = CRCMetrics.counters(config);
+		long start = CRCMetrics.ENABLED ? counters.start(length) : 0;
+		long crc = ComputerRegistry.getSlow(config).slow(config, message, offset, length);
+		if (CRCMetrics.ENABLED) {
+			counters.record(length, start);
 		}
+		return crc;
+	}
+	
+	/**
+	 * Compute the CRC of the remaining bytes of a buffer using the slower computational method.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param message Buffer holding the message to calculate CRC for.
+	 * @return The CRC of the message.
+	 */
+	public static <T extends Config<U, T>, U extends Computer<T, U>> long calculate(T config, ByteBuffer message) {
+		CRCMetrics.Counters counters = CRCMetrics.counters(config);
+		int length = message.remaining();
+		long start = CRCMetrics.ENABLED ? counters.start(length) : 0;
+		long crc = ComputerRegistry.getSlow(config).slow(config, message);
+		if (CRCMetrics.ENABLED) {
+			counters.record(length, start);
+		}
+		return crc;
 	}
 	
 	/**
@@ -129,12 +208,50 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 	 * @return The CRC of the message so far.
 	 */
 	public static <T extends Config<U, T>, U extends Computer<T, U>> long update(T config, Long crc, byte b) {
-		try {
-			U computer = config.computer.newInstance();
-			return computer.slowUpdate(config, crc, b);
-		} catch (InstantiationException | IllegalAccessException e) {
-			throw new IllegalArgumentException("Unable to create instance of provided CRC computer class.", e);
+		CRCMetrics.Counters counters = CRCMetrics.counters(config);
+		long start = CRCMetrics.ENABLED ? counters.start(1) : 0;
+		long result = ComputerRegistry.getSlow(config).slowUpdate(config, crc, b);
+		if (CRCMetrics.ENABLED) {
+			counters.record(1, start);
 		}
+		return result;
+	}
+	
+	/**
+	 * Compute the CRC of two messages joined together, from their separate CRCs.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param crcA CRC of the first message.
+	 * @param crcB CRC of the second message.
+	 * @param lengthB Number of bytes in the second message.
+	 * @return The CRC of the first message followed by the second.
+	 * @throws IllegalArgumentException If {@code lengthB} is negative.
+	 */
+	public static <T extends Config<U, T>, U extends Computer<T, U>> long combine(T config, long crcA, long crcB, long lengthB) {
+		return ComputerRegistry.getSlow(config).combine(config, crcA, crcB, lengthB);
+	}
+	
+	/**
+	 * Compute the CRC of a message after a range of its bytes is changed,
+	 * from its CRC before the change.
+	 * <p>
+	 * Only the changed bytes are processed, plus a number of steps proportional
+	 * to the log of the message length.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param oldCrc CRC of the message before the change.
+	 * @param totalLength Number of bytes in the message.
+	 * @param offset Index of the first changed byte.
+	 * @param oldBytes Bytes of the range before the change.
+	 * @param newBytes Bytes of the range after the change, the same length as {@code oldBytes}.
+	 * @return The CRC of the message after the change.
+	 */
+	public static <T extends Config<U, T>, U extends Computer<T, U>> long updateRange(T config, long oldCrc, long totalLength, long offset, byte[] oldBytes, byte[] newBytes) {
+		return ComputerRegistry.getSlow(config).updateRange(config, oldCrc, totalLength, offset, oldBytes, newBytes);
 	}
 	
 
@@ -142,6 +259,10 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 
 	/**
 	 * Compute the CRC of a given message using the faster table-drive method.
+	 * <p>
+	 * The message is encoded with the platform's default charset, so the
+	 * result may differ between machines.  Use
+	 * {@link #calculate(CharSequence, Charset)} to name the charset.
 	 * 
 	 * @param message Message to calculate CRC for.
 	 * @return The CRC of the message.
@@ -150,6 +271,29 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 		return calculate(message.getBytes());
 	}
 	
+	/**
+	 * Compute the CRC of some characters, encoded with a given charset, using
+	 * the faster table-drive method.
+	 * <p>
+	 * The characters are encoded straight into the CRC register, with no copy
+	 * of the encoded message.  US-ASCII, ISO-8859-1 and UTF-8 are encoded by
+	 * this library; other charsets through a reused buffer.  The result is the
+	 * CRC of {@code message.toString().getBytes(charset)}.
+	 * 
+	 * @param message Characters to calculate CRC for.
+	 * @param charset Charset to encode the characters with.
+	 * @return The CRC of the encoded message.
+	 */
+	public long calculate(CharSequence message, Charset charset) {
+		long length = CRCMetrics.ENABLED ? CharSequences.encodedLength(message, charset) : 0;
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		long register = CharSequences.append(config, computer, computer.fastStart(config), message, charset);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+		return computer.fastFinish(config, register);
+	}
+	
 	/**
 	 * Compute the CRC of a given message using the faster table-drive method.
 	 * 
@@ -157,7 +301,308 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 	 * @return The CRC of the message.
 	 */
 	public long calculate(byte[] message) {
-		return computer.fast(config, message);
+		long start = CRCMetrics.ENABLED ? metrics.start(message.length) : 0;
+		long crc = computer.fast(config, message);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(message.length, start);
+		}
+		return crc;
+	}
+	
+	/**
+	 * Compute the CRC of part of an array using the faster table-drive method.
+	 * 
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The CRC of the message.
+	 */
+	public long calculate(byte[] message, int offset, int length) {
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		long crc = computer.fast(config, message, offset, length);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+		return crc;
+	}
+	
+	/**
+	 * Compute the CRC of the remaining bytes of a buffer using the faster table-drive method.
+	 * <p>
+	 * Heap buffers are read through their backing array, and direct buffers
+	 * a word at a time, so no copy of the message is made.  The buffer's
+	 * position is advanced to its limit.
+	 * 
+	 * @param message Buffer holding the message to calculate CRC for.
+	 * @return The CRC of the message.
+	 */
+	public long calculate(ByteBuffer message) {
+		int length = message.remaining();
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		long crc = computer.fast(config, message);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+		return crc;
+	}
+	
+	/**
+	 * Compute the CRCs of many messages using the faster table-drive method.
+	 * <p>
+	 * Several messages are calculated at once, with their table lookups
+	 * interleaved, which is much faster than calculating short messages
+	 * one at a time.
+	 * 
+	 * @param messages Messages to calculate CRCs for.
+	 * @param results Array to store the CRC of each message in, at the same index.
+	 */
+	public void calculate(byte[][] messages, long[] results) {
+		long length = 0;
+		if (CRCMetrics.ENABLED) {
+			for (byte[] message : messages) {
+				length += message.length;
+			}
+		}
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		computer.fastBatch(config, messages, results);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+	}
+	
+	/**
+	 * Compute the CRCs of many messages held in one array using the faster table-drive method.
+	 * <p>
+	 * Several messages are calculated at once, with their table lookups
+	 * interleaved, which is much faster than calculating short messages
+	 * one at a time.
+	 * 
+	 * @param data Array holding the messages to calculate CRCs for.
+	 * @param offsets Index of the first byte of each message.
+	 * @param lengths Number of bytes in each message.
+	 * @param results Array to store the CRC of each message in, at the same index.
+	 */
+	public void calculate(byte[] data, int[] offsets, int[] lengths, long[] results) {
+		long length = 0;
+		if (CRCMetrics.ENABLED) {
+			for (int l : lengths) {
+				length += l;
+			}
+		}
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		computer.fastBatch(config, data, offsets, lengths, results);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+	}
+	
+	/**
+	 * Compute the CRC of a given message in parallel, using the faster table-drive method.
+	 * <p>
+	 * The message is split into parts of up to {@link #PARALLEL_THRESHOLD} bytes,
+	 * which are calculated in the common {@link ForkJoinPool}, and their CRCs combined.
+	 * 
+	 * @param message Message to calculate CRC for.
+	 * @return The CRC of the message.
+	 */
+	public long calculateParallel(byte[] message) {
+		return calculateParallel(message, 0, message.length, PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Compute the CRC of part of an array in parallel, using the faster table-drive method.
+	 * <p>
+	 * The message is split into parts of up to {@code threshold} bytes,
+	 * which are calculated in the common {@link ForkJoinPool}, and their CRCs combined.
+	 * 
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @param threshold Largest part to calculate without splitting.
+	 * @return The CRC of the message.
+	 */
+	public long calculateParallel(byte[] message, int offset, int length, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive.");
+		}
+		if (length <= threshold) {
+			return calculate(message, offset, length);
+		}
+		if ((offset < 0) || (length < 0) || (offset > message.length - length)) {
+			throw new ArrayIndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + message.length);
+		}
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		long crc = ForkJoinPool.commonPool().invoke(new CRCTask<T, U>(config, computer, message, offset, length, threshold));
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+		return crc;
+	}
+	
+	/**
+	 * Compute the CRC of a file using the faster table-drive method.
+	 * <p>
+	 * The file is mapped into memory a window at a time, so no copy of it is
+	 * made on the heap.  Mapped windows are only released when they are
+	 * garbage collected, so files larger than the system property
+	 * {@code net.digger.util.crc.mapLimit} are read into a direct buffer instead.
+	 * 
+	 * @param path Path of the file to calculate CRC for.
+	 * @return The CRC of the file.
+	 * @throws IOException If the file could not be read.
+	 */
+	public long calculate(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return calculate(channel, 0, channel.size());
+		}
+	}
+	
+	/**
+	 * Compute the CRC of a region of a file using the faster table-drive method.
+	 * <p>
+	 * The region is mapped into memory a window at a time, so no copy of it is
+	 * made on the heap.  If the region is larger than the system property
+	 * {@code net.digger.util.crc.mapLimit}, or the channel can't be mapped, it
+	 * is read into a direct buffer instead.  The channel's position is not
+	 * changed.
+	 * 
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte of the message in the file.
+	 * @param size Number of bytes in the message.  Any part of the region
+	 * 		beyond the end of the file is ignored.
+	 * @return The CRC of the message.
+	 * @throws IOException If the file could not be read.
+	 */
+	public long calculate(FileChannel channel, long position, long size) throws IOException {
+		size = clampRegion(channel, position, size);
+		long start = CRCMetrics.ENABLED ? metrics.start(size) : 0;
+		long register = ChannelTask.append(config, computer, computer.fastStart(config), channel, position, size);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(size, start);
+		}
+		return computer.fastFinish(config, register);
+	}
+	
+	/**
+	 * Compute the CRC of a file in parallel, using the faster table-drive method.
+	 * <p>
+	 * The file is mapped into memory in windows, which are calculated in the
+	 * common {@link ForkJoinPool}, and their CRCs combined.  Files larger than
+	 * the system property {@code net.digger.util.crc.mapLimit} are read into
+	 * direct buffers instead.
+	 * 
+	 * @param path Path of the file to calculate CRC for.
+	 * @return The CRC of the file.
+	 * @throws IOException If the file could not be read.
+	 */
+	public long calculateParallel(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return calculateParallel(channel, 0, channel.size());
+		}
+	}
+	
+	/**
+	 * Compute the CRC of a region of a file in parallel, using the faster table-drive method.
+	 * <p>
+	 * The region is mapped into memory in windows, which are calculated in the
+	 * common {@link ForkJoinPool}, and their CRCs combined.  Regions larger
+	 * than the system property {@code net.digger.util.crc.mapLimit} are read
+	 * into direct buffers instead.  The channel's position is not changed.
+	 * 
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte of the message in the file.
+	 * @param size Number of bytes in the message.  Any part of the region
+	 * 		beyond the end of the file is ignored.
+	 * @return The CRC of the message.
+	 * @throws IOException If the file could not be read.
+	 */
+	public long calculateParallel(FileChannel channel, long position, long size) throws IOException {
+		size = clampRegion(channel, position, size);
+		long start = CRCMetrics.ENABLED ? metrics.start(size) : 0;
+		long crc;
+		try {
+			crc = ForkJoinPool.commonPool().invoke(new ChannelTask<T, U>(config, computer, channel, position, size));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		if (CRCMetrics.ENABLED) {
+			metrics.record(size, start);
+		}
+		return crc;
+	}
+	
+	/**
+	 * Check a received frame holding a message followed by its CRC.
+	 * 
+	 * @param frame Frame to check.
+	 * @return {@code true} if the CRC at the end of the frame matches its message.
+	 * @see #verify(byte[], int, int)
+	 */
+	public boolean verify(byte[] frame) {
+		return verify(frame, 0, frame.length);
+	}
+	
+	/**
+	 * Check a received frame held in part of an array, using the faster table-driven method.
+	 * <p>
+	 * The frame is a message followed by its CRC, in the order the CRC's bytes
+	 * leave the register: least significant byte first if exactly one of
+	 * {@code reflectInputBits} and {@code reflectOutputBytes} is set (as for
+	 * CRC-32), and most significant byte first otherwise (as for CRC-CCITT,
+	 * Kermit and DNP).  The whole frame is run through the register, and the
+	 * result compared with a constant residue, so the CRC is never finalized.
+	 * 
+	 * @param frame Array holding the frame to check.
+	 * @param offset Index of the first byte of the frame.
+	 * @param length Number of bytes in the frame, including the CRC.
+	 * @return {@code true} if the CRC at the end of the frame matches its message.
+	 * @throws UnsupportedOperationException If the configuration is a checksum,
+	 * 		or a CRC which is not a whole number of bytes, or reflects its input
+	 * 		and output bits differently.
+	 */
+	public boolean verify(byte[] frame, int offset, int length) {
+		if (!residueKnown) {
+			residue = computer.fastResidue(config);
+			residueKnown = true;
+		}
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		long register = computer.fastAppend(config, computer.fastStart(config), frame, offset, length);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+		return register == residue;
+	}
+	
+	/**
+	 * Compute the CRC of two messages joined together, from their separate CRCs.
+	 * 
+	 * @param crcA CRC of the first message.
+	 * @param crcB CRC of the second message.
+	 * @param lengthB Number of bytes in the second message.
+	 * @return The CRC of the first message followed by the second.
+	 * @throws IllegalArgumentException If {@code lengthB} is negative.
+	 */
+	public long combine(long crcA, long crcB, long lengthB) {
+		return computer.combine(config, crcA, crcB, lengthB);
+	}
+	
+	/**
+	 * Compute the CRC of a message after a range of its bytes is changed,
+	 * from its CRC before the change.
+	 * <p>
+	 * Only the changed bytes are processed, plus a number of steps proportional
+	 * to the log of the message length.
+	 * 
+	 * @param oldCrc CRC of the message before the change.
+	 * @param totalLength Number of bytes in the message.
+	 * @param offset Index of the first changed byte.
+	 * @param oldBytes Bytes of the range before the change.
+	 * @param newBytes Bytes of the range after the change, the same length as {@code oldBytes}.
+	 * @return The CRC of the message after the change.
+	 */
+	public long updateRange(long oldCrc, long totalLength, long offset, byte[] oldBytes, byte[] newBytes) {
+		return computer.updateRange(config, oldCrc, totalLength, offset, oldBytes, newBytes);
 	}
 	
 	/**
@@ -168,6 +613,96 @@ public class CRC<T extends Config<U, T>, U extends Computer<T, U>>  {
 	 * @return The CRC of the message so far.
 	 */
 	public long update(Long crc, byte b) {
-		return computer.fastUpdate(config, crc, b);
+		long start = CRCMetrics.ENABLED ? metrics.start(1) : 0;
+		long result = computer.fastUpdate(config, crc, b);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(1, start);
+		}
+		return result;
+	}
+	
+	/**
+	 * Compute the CRC of the 4 bytes of an int, most significant first, using
+	 * the faster table-driven method.
+	 * <p>
+	 * This gives the same result as calculating the CRC of the value written
+	 * to a big-endian {@link ByteBuffer}, without creating one.
+	 * 
+	 * @param value Value to calculate CRC for.
+	 * @return The CRC of the value.
+	 */
+	public long hash(int value) {
+		long start = CRCMetrics.ENABLED ? metrics.start(4) : 0;
+		long register = CRCDigest.append(config, computer, computer.fastStart(config), value, 4, true);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(4, start);
+		}
+		return computer.fastFinish(config, register);
+	}
+	
+	/**
+	 * Compute the CRC of the 8 bytes of a long, most significant first, using
+	 * the faster table-driven method.
+	 * 
+	 * @param value Value to calculate CRC for.
+	 * @return The CRC of the value.
+	 * @see #hash(int)
+	 */
+	public long hash(long value) {
+		long start = CRCMetrics.ENABLED ? metrics.start(8) : 0;
+		long register = CRCDigest.append(config, computer, computer.fastStart(config), value, 8, true);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(8, start);
+		}
+		return computer.fastFinish(config, register);
+	}
+	
+	/**
+	 * Compute the CRC of the 16 bytes of two longs, each most significant
+	 * byte first, using the faster table-driven method.
+	 * 
+	 * @param first First value to calculate CRC for.
+	 * @param second Second value to calculate CRC for.
+	 * @return The CRC of the first value followed by the second.
+	 * @see #hash(int)
+	 */
+	public long hash(long first, long second) {
+		long start = CRCMetrics.ENABLED ? metrics.start(16) : 0;
+		long register = CRCDigest.append(config, computer, computer.fastStart(config), first, 8, true);
+		register = CRCDigest.append(config, computer, register, second, 8, true);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(16, start);
+		}
+		return computer.fastFinish(config, register);
+	}
+	
+	/**
+	 * Create a digest for incremental calculation using the faster table-driven method.
+	 * <p>
+	 * The digest shares this instance's lookup tables.
+	 * 
+	 * @return A new digest, ready to start a message.
+	 */
+	public CRCDigest<T, U> newDigest() {
+		return new CRCDigest<T, U>(config, computer, metrics);
+	}
+
+
+	// ##### Internal implementation methods
+
+	/**
+	 * Check a region of a file, and limit it to the end of the file.
+	 * 
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte of the region.
+	 * @param size Number of bytes in the region.
+	 * @return Number of bytes in the region which are within the file.
+	 * @throws IOException If the size of the file could not be read.
+	 */
+	private static long clampRegion(FileChannel channel, long position, long size) throws IOException {
+		if ((position < 0) || (size < 0)) {
+			throw new IllegalArgumentException("Position and size must not be negative.");
+		}
+		return Math.max(0, Math.min(size, channel.size() - position));
 	}
 }
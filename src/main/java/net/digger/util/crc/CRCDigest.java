@@ -0,0 +1,280 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Checksum;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Incremental checksum or CRC calculation, using the faster table-driven method.
+ * <p>
+ * The CRC register is held in a primitive long, and the final steps of the
+ * calculation are only applied when {@link #getValue()} is called, so
+ * updates do not allocate.  Instances are created with {@link CRC#newDigest()},
+ * and are not thread-safe.
+ * <p>
+ * Implements {@link Checksum}, so can be used with
+ * {@link java.util.zip.CheckedInputStream} and {@link java.util.zip.CheckedOutputStream}.
+ * <p>
+ * Primitive values can be added with {@link #putShort(short)},
+ * {@link #putInt(int)} and {@link #putLong(long)}, which return the digest
+ * so calls can be chained, and write the value's bytes in the digest's
+ * {@link #order(ByteOrder) byte order} without creating an array.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+public class CRCDigest<T extends Config<U, T>, U extends Computer<T, U>> implements Checksum {
+	private final T config;
+	private final U computer;
+	/**
+	 * Counters of the work done, or {@code null} if not enabled.
+	 */
+	private final CRCMetrics.Counters metrics;
+	private long register;
+	private boolean bigEndian = true;
+
+	/**
+	 * Create a digest with the given configuration.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param metrics Counters of the work done, or {@code null} if not enabled.
+	 */
+	CRCDigest(T config, U computer, CRCMetrics.Counters metrics) {
+		this.config = config;
+		this.computer = computer;
+		this.metrics = metrics;
+		reset();
+	}
+
+	/**
+	 * Update the CRC with a new byte.
+	 * 
+	 * @param b Next byte of the message to calculate CRC for.
+	 */
+	public void update(byte b) {
+		long start = CRCMetrics.ENABLED ? metrics.start(1) : 0;
+		register = computer.fastAppend(config, register, b);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(1, start);
+		}
+	}
+
+	/**
+	 * Update the CRC with a new byte.
+	 * 
+	 * @param b Next byte of the message to calculate CRC for, in the low 8 bits.
+	 */
+	@Override
+	public void update(int b) {
+		update((byte)b);
+	}
+
+	/**
+	 * Update the CRC with an array of bytes.
+	 * 
+	 * @param message Next part of the message to calculate CRC for.
+	 */
+	public void update(byte[] message) {
+		update(message, 0, message.length);
+	}
+
+	/**
+	 * Update the CRC with part of an array.
+	 * 
+	 * @param message Array holding the next part of the message.
+	 * @param offset Index of the first byte to process.
+	 * @param length Number of bytes to process.
+	 */
+	@Override
+	public void update(byte[] message, int offset, int length) {
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		register = computer.fastAppend(config, register, message, offset, length);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+	}
+
+	/**
+	 * Update the CRC with the remaining bytes of a buffer.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param message Buffer holding the next part of the message.
+	 */
+	public void update(ByteBuffer message) {
+		int length = message.remaining();
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		register = computer.fastAppend(config, register, message);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+	}
+
+	/**
+	 * Update the CRC with some characters, encoded as UTF-8.
+	 * 
+	 * @param message Next part of the message to calculate CRC for.
+	 * @see #update(CharSequence, Charset)
+	 */
+	public void update(CharSequence message) {
+		update(message, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Update the CRC with some characters, encoded with a given charset.
+	 * <p>
+	 * The characters are encoded straight into the CRC register, as for
+	 * {@link CRC#calculate(CharSequence, Charset)}.  Each call is encoded
+	 * separately, so a surrogate pair must not be split between calls.
+	 * 
+	 * @param message Next part of the message to calculate CRC for.
+	 * @param charset Charset to encode the characters with.
+	 */
+	public void update(CharSequence message, Charset charset) {
+		long length = CRCMetrics.ENABLED ? CharSequences.encodedLength(message, charset) : 0;
+		long start = CRCMetrics.ENABLED ? metrics.start(length) : 0;
+		register = CharSequences.append(config, computer, register, message, charset);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(length, start);
+		}
+	}
+
+	/**
+	 * Update the CRC with the 2 bytes of a short, in the digest's byte order.
+	 * 
+	 * @param value Next value of the message to calculate CRC for.
+	 * @return This digest.
+	 */
+	public CRCDigest<T, U> putShort(short value) {
+		return put(value, 2);
+	}
+
+	/**
+	 * Update the CRC with the 4 bytes of an int, in the digest's byte order.
+	 * 
+	 * @param value Next value of the message to calculate CRC for.
+	 * @return This digest.
+	 */
+	public CRCDigest<T, U> putInt(int value) {
+		return put(value, 4);
+	}
+
+	/**
+	 * Update the CRC with the 8 bytes of a long, in the digest's byte order.
+	 * 
+	 * @param value Next value of the message to calculate CRC for.
+	 * @return This digest.
+	 */
+	public CRCDigest<T, U> putLong(long value) {
+		return put(value, 8);
+	}
+
+	/**
+	 * Get the byte order used to add primitive values.
+	 * 
+	 * @return The byte order, {@link ByteOrder#BIG_ENDIAN} unless changed.
+	 */
+	public ByteOrder order() {
+		return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+	}
+
+	/**
+	 * Set the byte order used to add primitive values.
+	 * <p>
+	 * The order is kept when the digest is reset.
+	 * 
+	 * @param order The new byte order.
+	 * @return This digest.
+	 */
+	public CRCDigest<T, U> order(ByteOrder order) {
+		bigEndian = (order == ByteOrder.BIG_ENDIAN);
+		return this;
+	}
+
+	/**
+	 * Get the CRC of the message so far.
+	 * <p>
+	 * This does not change the state of the digest, so more bytes may be added afterwards.
+	 * 
+	 * @return The CRC of the message so far.
+	 */
+	@Override
+	public long getValue() {
+		return computer.fastFinish(config, register);
+	}
+
+	/**
+	 * Reset the digest to start a new message.
+	 */
+	@Override
+	public void reset() {
+		register = computer.fastStart(config);
+	}
+
+	/**
+	 * Update the CRC with the low bytes of a value, in the digest's byte order.
+	 * 
+	 * @param value Value holding the bytes.
+	 * @param bytes Number of bytes to add.
+	 * @return This digest.
+	 */
+	private CRCDigest<T, U> put(long value, int bytes) {
+		long start = CRCMetrics.ENABLED ? metrics.start(bytes) : 0;
+		register = append(config, computer, register, value, bytes, bigEndian);
+		if (CRCMetrics.ENABLED) {
+			metrics.record(bytes, start);
+		}
+		return this;
+	}
+
+	/**
+	 * Append the low bytes of a value to a register, using the faster table-driven method.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param value Value holding the bytes.
+	 * @param bytes Number of bytes to append.
+	 * @param bigEndian Append the most significant byte first?
+	 * @return Updated internal register value.
+	 */
+	static <T extends Config<U, T>, U extends Computer<T, U>> long append(T config, U computer, long register,
+			long value, int bytes, boolean bigEndian) {
+		if (bigEndian) {
+			for (int shift=(bytes - 1) * 8; shift>=0; shift-=8) {
+				register = computer.fastAppend(config, register, (byte)(value >>> shift));
+			}
+		} else {
+			for (int i=0; i<bytes; i++, value>>>=8) {
+				register = computer.fastAppend(config, register, (byte)value);
+			}
+		}
+		return register;
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+/**
+ * Flight recorder event for a single large calculation.
+ * <p>
+ * Flight recorder events need Java 11 or later, so this version of the class
+ * does nothing.  The Java 11 version, in the multi-release section of the
+ * jar, records the events.
+ * 
+ * @author walton
+ */
+final class CRCEvent {
+	private CRCEvent() {}
+
+	/**
+	 * Check whether events can be recorded.
+	 * 
+	 * @return {@code false}, as events are not supported.
+	 */
+	static boolean isSupported() {
+		return false;
+	}
+
+	/**
+	 * Begin an event for a calculation on the current thread.
+	 * 
+	 * @param config Name of the configuration.
+	 */
+	static void begin(String config) {}
+
+	/**
+	 * Commit the event begun on the current thread, if any.
+	 * 
+	 * @param bytes Number of bytes processed.
+	 */
+	static void end(long bytes) {}
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import net.digger.util.crc.config.Config;
+
+/**
+ * Optional counters of the work done by each checksum and CRC configuration.
+ * <p>
+ * Set the system property {@code net.digger.util.crc.metrics} to {@code true}
+ * to count the calls, bytes and nanoseconds spent in the {@link CRC}
+ * calculation methods and {@link CRCDigest} updates of each configuration.
+ * The counters are read with {@link #snapshot()}, or through JMX as the
+ * {@link CRCMetricsMXBean} named {@value #OBJECT_NAME}.  On Java 11 or
+ * later, when Java Flight Recorder is available, each single calculation of
+ * at least {@code net.digger.util.crc.metrics.eventThreshold} bytes (default
+ * 1 MB) is also recorded as a {@code net.digger.util.crc.Calculation} event.
+ * <p>
+ * Characters are counted as the bytes they are encoded into.
+ * <p>
+ * The setting is read once, into a static final field, so when it is off
+ * the JIT removes the checks entirely.
+ * 
+ * @author walton
+ */
+public final class CRCMetrics {
+	/**
+	 * Name the MXBean is registered under.
+	 */
+	public static final String OBJECT_NAME = "net.digger.util.crc:type=CRCMetrics";
+	/**
+	 * Whether to count the work done.
+	 */
+	static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("net.digger.util.crc.metrics", "false"));
+	/**
+	 * Smallest number of bytes in a single calculation to record a flight recorder event for.
+	 */
+	static final long EVENT_THRESHOLD = Long.getLong("net.digger.util.crc.metrics.eventThreshold", 1 << 20);
+	/**
+	 * Counters, keyed by configuration instance.
+	 */
+	private static final ConcurrentMap<Config<?, ?>, Counters> counters = new ConcurrentHashMap<>();
+	/**
+	 * Whether flight recorder events can be created.
+	 */
+	private static final boolean EVENTS;
+
+	static {
+		boolean events = false;
+		if (ENABLED) {
+			try {
+				Class.forName("jdk.jfr.Event");
+				events = CRCEvent.isSupported();
+			} catch (ClassNotFoundException | LinkageError e) {
+				// Flight recorder not available.
+			}
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+			} catch (JMException | SecurityException e) {
+				// Already registered by another class loader, or not permitted.
+			}
+		}
+		EVENTS = events;
+	}
+
+	private CRCMetrics() {}
+
+	/**
+	 * Check whether the counters are enabled.
+	 * 
+	 * @return {@code true} if the work done is being counted.
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * Get the current counters of every configuration which has been used.
+	 * <p>
+	 * Each counter is read separately, so calculations in progress may be
+	 * only partly included.
+	 * 
+	 * @return A snapshot of each configuration's counters, empty if the
+	 * 		counters are not enabled.
+	 */
+	public static List<Snapshot> snapshot() {
+		List<Snapshot> list = new ArrayList<>();
+		for (Counters c : counters.values()) {
+			list.add(new Snapshot(c.name, c.calls.sum(), c.bytes.sum(), c.nanos.sum()));
+		}
+		return list;
+	}
+
+	/**
+	 * Reset the counters of every configuration to zero.
+	 */
+	public static void reset() {
+		for (Counters c : counters.values()) {
+			c.calls.reset();
+			c.bytes.reset();
+			c.nanos.reset();
+		}
+	}
+
+	/**
+	 * Get the counters for a configuration.
+	 * 
+	 * @param config Configuration to get counters for.
+	 * @return Shared counters, or {@code null} if the counters are not enabled.
+	 */
+	static Counters counters(Config<?, ?> config) {
+		if (!ENABLED) {
+			return null;
+		}
+		Counters c = counters.get(config);
+		if (c == null) {
+			c = counters.computeIfAbsent(config, key -> new Counters(key.name));
+		}
+		return c;
+	}
+
+	/**
+	 * Counters of the work done with one configuration.
+	 */
+	static final class Counters {
+		private final String name;
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder bytes = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+
+		private Counters(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Start timing a call, and begin a flight recorder event if the call is large.
+		 * 
+		 * @param length Number of bytes to be processed, or an estimate.
+		 * @return Value of {@link System#nanoTime()} when the call started.
+		 */
+		long start(long length) {
+			if (EVENTS && (length >= EVENT_THRESHOLD)) {
+				CRCEvent.begin(name);
+			}
+			return System.nanoTime();
+		}
+
+		/**
+		 * Count one call, and commit the flight recorder event begun for it, if any.
+		 * 
+		 * @param length Number of bytes processed.
+		 * @param start Value of {@link System#nanoTime()} when the call started.
+		 */
+		void record(long length, long start) {
+			long elapsed = System.nanoTime() - start;
+			calls.increment();
+			bytes.add(length);
+			nanos.add(elapsed);
+			if (EVENTS && (length >= EVENT_THRESHOLD)) {
+				CRCEvent.end(length);
+			}
+		}
+	}
+
+	/**
+	 * Counters of the work done with one configuration, at one time.
+	 */
+	public static final class Snapshot {
+		private final String name;
+		private final long calls;
+		private final long bytes;
+		private final long nanos;
+
+		private Snapshot(String name, long calls, long bytes, long nanos) {
+			this.name = name;
+			this.calls = calls;
+			this.bytes = bytes;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Get the name of the configuration.
+		 * 
+		 * @return Name of the configuration.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Get the number of calculations and updates.
+		 * 
+		 * @return Number of calls.
+		 */
+		public long getCalls() {
+			return calls;
+		}
+
+		/**
+		 * Get the number of bytes processed.
+		 * 
+		 * @return Number of bytes.
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Get the time spent, measured with {@link System#nanoTime()}.
+		 * 
+		 * @return Number of nanoseconds.
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + calls + " calls, " + bytes + " bytes, " + nanos + " ns";
+		}
+	}
+
+	/**
+	 * MXBean exposing the counters.
+	 */
+	private static final class MXBean implements CRCMetricsMXBean {
+		@Override
+		public List<Snapshot> getSnapshot() {
+			return snapshot();
+		}
+
+		@Override
+		public void reset() {
+			CRCMetrics.reset();
+		}
+	}
+}
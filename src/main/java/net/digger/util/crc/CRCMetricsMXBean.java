@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.util.List;
+
+/**
+ * Management interface for the counters in {@link CRCMetrics}.
+ * <p>
+ * Registered as {@value CRCMetrics#OBJECT_NAME} when the counters are enabled.
+ * 
+ * @author walton
+ */
+public interface CRCMetricsMXBean {
+	/**
+	 * Get the current counters of every configuration which has been used.
+	 * 
+	 * @return A snapshot of each configuration's counters.
+	 */
+	List<CRCMetrics.Snapshot> getSnapshot();
+
+	/**
+	 * Reset the counters of every configuration to zero.
+	 */
+	void reset();
+}
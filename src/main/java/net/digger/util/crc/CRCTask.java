@@ -0,0 +1,76 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.util.concurrent.RecursiveTask;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Fork/join task which computes the CRC of part of an array, by splitting it
+ * in half until the parts are no larger than a threshold, and combining the
+ * CRCs of the parts.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+class CRCTask<T extends Config<U, T>, U extends Computer<T, U>> extends RecursiveTask<Long> {
+	private static final long serialVersionUID = 1L;
+
+	private final T config;
+	private final U computer;
+	private final byte[] message;
+	private final int offset;
+	private final int length;
+	private final int threshold;
+
+	/**
+	 * Create a task for part of an array.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @param threshold Largest part to calculate without splitting.
+	 */
+	CRCTask(T config, U computer, byte[] message, int offset, int length, int threshold) {
+		this.config = config;
+		this.computer = computer;
+		this.message = message;
+		this.offset = offset;
+		this.length = length;
+		this.threshold = threshold;
+	}
+
+	@Override
+	protected Long compute() {
+		if (length <= threshold) {
+			return computer.fast(config, message, offset, length);
+		}
+		int half = length >>> 1;
+		CRCTask<T, U> first = new CRCTask<T, U>(config, computer, message, offset, half, threshold);
+		CRCTask<T, U> second = new CRCTask<T, U>(config, computer, message, offset + half, length - half, threshold);
+		first.fork();
+		long crcB = second.compute();
+		long crcA = first.join();
+		return computer.combine(config, crcA, crcB, length - half);
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.RecursiveTask;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Computes the CRC of a region of a file, by mapping it into memory a window
+ * at a time.
+ * <p>
+ * As a fork/join task, the region is split into windows which are calculated
+ * in parallel, and their CRCs combined.  The static {@link #append} method
+ * reads the windows sequentially instead.
+ * <p>
+ * Mapped windows can't be unmapped explicitly, and are only released when
+ * their buffers are garbage collected.  Until then they hold address space
+ * and, on Windows, keep the file from being deleted.  Regions larger than
+ * the system property {@code net.digger.util.crc.mapLimit} (in bytes, no
+ * limit by default) are read into a direct buffer instead.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+class ChannelTask<T extends Config<U, T>, U extends Computer<T, U>> extends RecursiveTask<Long> {
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Largest region of the file to map at once.
+	 */
+	static final int WINDOW = 1 << 26;
+	/**
+	 * Size of the buffer to read with, if the file can't be mapped.
+	 */
+	private static final int BUFFER = 1 << 20;
+	/**
+	 * Largest region to map into memory, rather than read.
+	 */
+	static final long MAP_LIMIT = Long.getLong("net.digger.util.crc.mapLimit", Long.MAX_VALUE);
+
+	private final T config;
+	private final U computer;
+	private final FileChannel channel;
+	private final long position;
+	private final long size;
+	private final boolean map;
+
+	/**
+	 * Create a task for a region of a file.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte of the message in the file.
+	 * @param size Number of bytes in the message.
+	 */
+	ChannelTask(T config, U computer, FileChannel channel, long position, long size) {
+		this(config, computer, channel, position, size, size <= MAP_LIMIT);
+	}
+
+	/**
+	 * Create a task for part of a region of a file.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte of the part in the file.
+	 * @param size Number of bytes in the part.
+	 * @param map Whether the whole region is small enough to map.
+	 */
+	private ChannelTask(T config, U computer, FileChannel channel, long position, long size, boolean map) {
+		this.config = config;
+		this.computer = computer;
+		this.channel = channel;
+		this.position = position;
+		this.size = size;
+		this.map = map;
+	}
+
+	@Override
+	protected Long compute() {
+		if (size <= WINDOW) {
+			try {
+				long register = computer.fastStart(config);
+				if (map) {
+					register = append(config, computer, register, channel, position, size);
+				} else {
+					register = read(config, computer, register, channel, position, position + size);
+				}
+				return computer.fastFinish(config, register);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		// Split on a window boundary, so each part maps whole windows.
+		long half = ((size >>> 1) + WINDOW - 1) / WINDOW * WINDOW;
+		ChannelTask<T, U> first = new ChannelTask<T, U>(config, computer, channel, position, half, map);
+		ChannelTask<T, U> second = new ChannelTask<T, U>(config, computer, channel, position + half, size - half, map);
+		first.fork();
+		long crcB = second.compute();
+		long crcA = first.join();
+		return computer.combine(config, crcA, crcB, size - half);
+	}
+
+	/**
+	 * Update a register with a region of a file.
+	 * <p>
+	 * The file is mapped a window at a time, and the mapped buffers passed to
+	 * the table engine, so no copy is made onto the heap.  If the region is
+	 * larger than {@link #MAP_LIMIT}, or the channel can't be mapped, it is
+	 * read into a direct buffer instead.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte to process.
+	 * @param size Number of bytes to process.
+	 * @return Updated internal register value.
+	 * @throws IOException If the file could not be read.
+	 */
+	static <T extends Config<U, T>, U extends Computer<T, U>> long append(T config, U computer, long register,
+			FileChannel channel, long position, long size) throws IOException {
+		long end = position + size;
+		if (size > MAP_LIMIT) {
+			return read(config, computer, register, channel, position, end);
+		}
+		while (position < end) {
+			long length = Math.min(end - position, WINDOW);
+			ByteBuffer window;
+			try {
+				window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			} catch (IOException | UnsupportedOperationException e) {
+				return read(config, computer, register, channel, position, end);
+			}
+			register = computer.fastAppend(config, register, window);
+			position += length;
+		}
+		return register;
+	}
+
+	/**
+	 * Update a register with a region of a file, by reading into a direct buffer.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param channel Channel to read the file from.
+	 * @param position Position of the first byte to process.
+	 * @param end Position after the last byte to process.
+	 * @return Updated internal register value.
+	 * @throws IOException If the file could not be read.
+	 */
+	private static <T extends Config<U, T>, U extends Computer<T, U>> long read(T config, U computer, long register,
+			FileChannel channel, long position, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int)Math.min(end - position, BUFFER));
+		while (position < end) {
+			buffer.clear();
+			if (end - position < buffer.capacity()) {
+				buffer.limit((int)(end - position));
+			}
+			int count = channel.read(buffer, position);
+			if (count < 0) {
+				break;
+			}
+			buffer.flip();
+			register = computer.fastAppend(config, register, buffer);
+			position += count;
+		}
+		return register;
+	}
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Appends encoded characters to a CRC register, without encoding the whole
+ * message into an array first.
+ * <p>
+ * US-ASCII, ISO-8859-1 and UTF-8 are encoded here, 8 KB at a time, into an
+ * array kept for each thread, which is then run through the computer's
+ * fastest path for a block of that size.  Text which fits in one block, at
+ * the start of a calculation, goes straight to the JDK intrinsics for CRC-32
+ * and CRC-32C.  Other charsets go through a
+ * {@link CharsetEncoder}.  Characters which can't be encoded are replaced by
+ * {@code '?'}, as {@link String#getBytes(Charset)} does, so the results match
+ * the CRC of the encoded bytes.
+ * 
+ * @author walton
+ */
+final class CharSequences {
+	/**
+	 * Size of the array characters are encoded into.  Blocks this large are
+	 * well over the 4 KB needed for CRC-32 and CRC-32C to be appended
+	 * through the JDK intrinsics.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+	/**
+	 * Array for each thread to encode characters into.
+	 */
+	private static final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+	private CharSequences() {}
+
+	/**
+	 * Append the encoded bytes of some characters to a register, using the
+	 * faster table-driven method.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param message Characters to append.
+	 * @param charset Charset to encode the characters with.
+	 * @return Updated internal register value.
+	 */
+	static <T extends Config<U, T>, U extends Computer<T, U>> long append(T config, U computer, long register,
+			CharSequence message, Charset charset) {
+		if (charset.equals(StandardCharsets.UTF_8)) {
+			return appendUTF8(config, computer, register, message);
+		}
+		if (charset.equals(StandardCharsets.ISO_8859_1)) {
+			return appendSingleByte(config, computer, register, message, 0xFF);
+		}
+		if (charset.equals(StandardCharsets.US_ASCII)) {
+			return appendSingleByte(config, computer, register, message, 0x7F);
+		}
+		return appendEncoded(config, computer, register, message, charset);
+	}
+
+	/**
+	 * Count the bytes some characters are encoded into, as appended by
+	 * {@link #append(Config, Computer, long, CharSequence, Charset)}.
+	 * <p>
+	 * Charsets other than US-ASCII, ISO-8859-1 and UTF-8 are encoded to count
+	 * them, so this is only worth calling when the count is needed.
+	 * 
+	 * @param message Characters to count.
+	 * @param charset Charset to encode the characters with.
+	 * @return Number of encoded bytes.
+	 */
+	static long encodedLength(CharSequence message, Charset charset) {
+		boolean utf8 = charset.equals(StandardCharsets.UTF_8);
+		int max;
+		if (utf8 || charset.equals(StandardCharsets.US_ASCII)) {
+			max = 0x7F;
+		} else if (charset.equals(StandardCharsets.ISO_8859_1)) {
+			max = 0xFF;
+		} else {
+			return encodedLength(message, charset.newEncoder());
+		}
+		int length = message.length();
+		long count = 0;
+		for (int i=0; i<length; i++) {
+			char c = message.charAt(i);
+			if (c <= max) {
+				count++;
+			} else if (Character.isHighSurrogate(c) && (i + 1 < length) && Character.isLowSurrogate(message.charAt(i + 1))) {
+				// A surrogate pair is one unmappable character, or 4 bytes of UTF-8.
+				i++;
+				count += utf8 ? 4 : 1;
+			} else if (!utf8 || Character.isSurrogate(c)) {
+				count++;
+			} else {
+				count += (c < 0x800) ? 2 : 3;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Count the bytes some characters are encoded into by a charset's own encoder.
+	 * 
+	 * @param message Characters to count.
+	 * @param encoder Encoder for the charset.
+	 * @return Number of encoded bytes.
+	 */
+	private static long encodedLength(CharSequence message, CharsetEncoder encoder) {
+		encoder.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer in = CharBuffer.wrap(message);
+		ByteBuffer out = ByteBuffer.wrap(buffers.get());
+		long count = 0;
+		boolean flushing = false;
+		while (true) {
+			CoderResult result = flushing ? encoder.flush(out) : encoder.encode(in, out, true);
+			count += out.position();
+			out.clear();
+			if (result.isUnderflow()) {
+				if (flushing) {
+					return count;
+				}
+				flushing = true;
+			}
+		}
+	}
+
+	/**
+	 * Append characters encoded one byte each, with {@code '?'} for any
+	 * character above the charset's range, or surrogate pair.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param message Characters to append.
+	 * @param max Highest character in the charset.
+	 * @return Updated internal register value.
+	 */
+	private static <T extends Config<U, T>, U extends Computer<T, U>> long appendSingleByte(T config, U computer,
+			long register, CharSequence message, int max) {
+		byte[] buffer = buffers.get();
+		int length = message.length();
+		int count = 0;
+		for (int i=0; i<length; i++) {
+			if (count == BUFFER_SIZE) {
+				register = computer.fastAppend(config, register, buffer, 0, count);
+				count = 0;
+			}
+			char c = message.charAt(i);
+			if (c <= max) {
+				buffer[count++] = (byte)c;
+			} else {
+				// A surrogate pair is one unmappable character.
+				if (Character.isHighSurrogate(c) && (i + 1 < length) && Character.isLowSurrogate(message.charAt(i + 1))) {
+					i++;
+				}
+				buffer[count++] = '?';
+			}
+		}
+		return computer.fastAppend(config, register, buffer, 0, count);
+	}
+
+	/**
+	 * Append characters encoded as UTF-8, with {@code '?'} for any unpaired surrogate.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param message Characters to append.
+	 * @return Updated internal register value.
+	 */
+	private static <T extends Config<U, T>, U extends Computer<T, U>> long appendUTF8(T config, U computer,
+			long register, CharSequence message) {
+		byte[] buffer = buffers.get();
+		int length = message.length();
+		int count = 0;
+		for (int i=0; i<length; i++) {
+			// Leave room for the longest sequence.
+			if (count > BUFFER_SIZE - 4) {
+				register = computer.fastAppend(config, register, buffer, 0, count);
+				count = 0;
+			}
+			char c = message.charAt(i);
+			if (c < 0x80) {
+				buffer[count++] = (byte)c;
+			} else if (c < 0x800) {
+				buffer[count++] = (byte)(0xC0 | (c >>> 6));
+				buffer[count++] = (byte)(0x80 | (c & 0x3F));
+			} else if (!Character.isSurrogate(c)) {
+				buffer[count++] = (byte)(0xE0 | (c >>> 12));
+				buffer[count++] = (byte)(0x80 | ((c >>> 6) & 0x3F));
+				buffer[count++] = (byte)(0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && (i + 1 < length) && Character.isLowSurrogate(message.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, message.charAt(++i));
+				buffer[count++] = (byte)(0xF0 | (cp >>> 18));
+				buffer[count++] = (byte)(0x80 | ((cp >>> 12) & 0x3F));
+				buffer[count++] = (byte)(0x80 | ((cp >>> 6) & 0x3F));
+				buffer[count++] = (byte)(0x80 | (cp & 0x3F));
+			} else {
+				buffer[count++] = '?';
+			}
+		}
+		return computer.fastAppend(config, register, buffer, 0, count);
+	}
+
+	/**
+	 * Append characters encoded by the charset's own encoder, a buffer at a time.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @param computer Computer instance, with lookup tables populated.
+	 * @param register Internal register value.
+	 * @param message Characters to append.
+	 * @param charset Charset to encode the characters with.
+	 * @return Updated internal register value.
+	 */
+	private static <T extends Config<U, T>, U extends Computer<T, U>> long appendEncoded(T config, U computer,
+			long register, CharSequence message, Charset charset) {
+		CharsetEncoder encoder = charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer in = CharBuffer.wrap(message);
+		ByteBuffer out = ByteBuffer.wrap(buffers.get());
+		boolean flushing = false;
+		while (true) {
+			CoderResult result = flushing ? encoder.flush(out) : encoder.encode(in, out, true);
+			out.flip();
+			register = computer.fastAppend(config, register, out);
+			out.clear();
+			if (result.isUnderflow()) {
+				if (flushing) {
+					return register;
+				}
+				flushing = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.nio.ByteBuffer;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.computer.ComputerRegistry;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Computes several checksums or CRCs of the same message in one pass, using
+ * the faster table-driven method.
+ * <p>
+ * The message is processed in blocks small enough to stay in the processor
+ * cache, and every configuration's register is updated with a block before
+ * moving on to the next, so a large message is only streamed from memory once.
+ * Instances are thread-safe.
+ * 
+ * @author walton
+ */
+public class MultiCRC {
+	/**
+	 * Number of bytes processed by every configuration before moving on.
+	 */
+	static final int BLOCK = 1 << 14;
+
+	private final Lane<?, ?>[] lanes;
+
+	/**
+	 * Create an instance for the given configurations.
+	 * <p>
+	 * The lookup tables are shared with all other instances using the same
+	 * table parameters.
+	 * 
+	 * @param configs CRC and checksum configurations to use, in the order
+	 * 		their results will be returned.
+	 */
+	public MultiCRC(Config<?, ?>... configs) {
+		this.lanes = new Lane<?, ?>[configs.length];
+		for (int i=0; i<configs.length; i++) {
+			lanes[i] = newLane(configs[i]);
+		}
+	}
+
+	/**
+	 * Compute the CRCs of a given message.
+	 * 
+	 * @param message Message to calculate CRCs for.
+	 * @return The CRC for each configuration, in the order they were given.
+	 */
+	public long[] calculate(byte[] message) {
+		return calculate(message, 0, message.length);
+	}
+
+	/**
+	 * Compute the CRCs of part of an array.
+	 * 
+	 * @param message Array holding the message to calculate CRCs for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The CRC for each configuration, in the order they were given.
+	 */
+	public long[] calculate(byte[] message, int offset, int length) {
+		if ((offset < 0) || (length < 0) || (offset > message.length - length)) {
+			throw new ArrayIndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + message.length);
+		}
+		long[] registers = start();
+		int end = offset + length;
+		while (offset < end) {
+			int count = Math.min(end - offset, BLOCK);
+			for (int i=0; i<lanes.length; i++) {
+				registers[i] = lanes[i].append(registers[i], message, offset, count);
+			}
+			offset += count;
+		}
+		return finish(registers);
+	}
+
+	/**
+	 * Compute the CRCs of the remaining bytes of a buffer.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param message Buffer holding the message to calculate CRCs for.
+	 * @return The CRC for each configuration, in the order they were given.
+	 */
+	public long[] calculate(ByteBuffer message) {
+		long[] registers = start();
+		ByteBuffer block = message.duplicate().order(message.order());
+		int position = message.position();
+		int end = message.limit();
+		while (position < end) {
+			int limit = Math.min(end - position, BLOCK) + position;
+			for (int i=0; i<lanes.length; i++) {
+				block.limit(limit);
+				block.position(position);
+				registers[i] = lanes[i].append(registers[i], block);
+			}
+			position = limit;
+		}
+		message.position(end);
+		return finish(registers);
+	}
+
+	private long[] start() {
+		long[] registers = new long[lanes.length];
+		for (int i=0; i<lanes.length; i++) {
+			registers[i] = lanes[i].start();
+		}
+		return registers;
+	}
+
+	private long[] finish(long[] registers) {
+		for (int i=0; i<lanes.length; i++) {
+			registers[i] = lanes[i].finish(registers[i]);
+		}
+		return registers;
+	}
+
+	/**
+	 * Create a lane for a configuration of unknown type.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return A lane using the shared computer for the configuration.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Lane<?, ?> newLane(Config<?, ?> config) {
+		return new Lane((Config)config);
+	}
+
+	/**
+	 * One configuration, with its computer.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 */
+	private static class Lane<T extends Config<U, T>, U extends Computer<T, U>> {
+		private final T config;
+		private final U computer;
+
+		Lane(T config) {
+			this.config = config;
+			this.computer = ComputerRegistry.getFast(config);
+		}
+
+		long start() {
+			return computer.fastStart(config);
+		}
+
+		long append(long register, byte[] message, int offset, int length) {
+			return computer.fastAppend(config, register, message, offset, length);
+		}
+
+		long append(long register, ByteBuffer message) {
+			return computer.fastAppend(config, register, message);
+		}
+
+		long finish(long register) {
+			return computer.fastFinish(config, register);
+		}
+	}
+}
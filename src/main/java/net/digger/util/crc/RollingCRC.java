@@ -0,0 +1,236 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.computer.ComputerRegistry;
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Computes the CRC of a window of bytes which slides along a message, using
+ * the faster table-driven method.
+ * <p>
+ * The CRC register is linear over GF(2), so the effect of the byte leaving
+ * the window is the same wherever it is, and is looked up in a table built
+ * from the configuration's polynomial.  Sliding the window by one byte is
+ * then one table lookup for the byte entering, and one for the byte leaving,
+ * whatever the size of the window.  Instances are thread-safe.
+ * <p>
+ * Rolling values are internal register values, which must only be passed to
+ * the methods of the same instance.  Use {@link #getValue(long)} to get the
+ * CRC of the window.
+ * 
+ * @author walton
+ */
+public class RollingCRC {
+	private final CRCConfig config;
+	private final CRCComputer computer;
+	private final int window;
+	/**
+	 * Register change for each byte leaving the window, including the change
+	 * in the initial value's contribution.
+	 */
+	private final long[] outTable;
+
+	/**
+	 * Create an instance with the given CRC config and window size.
+	 * <p>
+	 * The lookup tables are shared with all other instances using the same
+	 * table parameters.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param window Number of bytes in the window.
+	 */
+	public RollingCRC(CRCConfig config, int window) {
+		if (window < 1) {
+			throw new IllegalArgumentException("Window must be positive.");
+		}
+		this.config = config;
+		this.computer = ComputerRegistry.getFast(config);
+		this.window = window;
+		this.outTable = new long[256];
+		byte[] zeros = new byte[window];
+		long start = computer.fastStart(config);
+		long startShifted = computer.fastAppend(config, start, (byte)0);
+		// Appending zero bytes is linear, so only the 8 single-bit bytes need
+		// to be pushed through the window.
+		long[] bits = new long[8];
+		for (int bit=0; bit<8; bit++) {
+			long register = computer.fastAppend(config, start, (byte)(1 << bit)) ^ startShifted;
+			bits[bit] = computer.fastAppend(config, register, zeros, 0, window);
+		}
+		// The window moves the initial value on by one byte at each step.
+		long initial = computer.fastAppend(config, start ^ startShifted, zeros, 0, window);
+		for (int b=0; b<256; b++) {
+			long register = initial;
+			for (int bit=0; bit<8; bit++) {
+				if (((b >>> bit) & 1) != 0) {
+					register ^= bits[bit];
+				}
+			}
+			outTable[b] = register;
+		}
+	}
+
+	/**
+	 * Get the number of bytes in the window.
+	 * 
+	 * @return Number of bytes in the window.
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Compute the rolling value of the window starting at a given index.
+	 * 
+	 * @param message Array holding the message.
+	 * @param offset Index of the first byte of the window.
+	 * @return Rolling value of the window.
+	 */
+	public long start(byte[] message, int offset) {
+		return computer.fastAppend(config, computer.fastStart(config), message, offset, window);
+	}
+
+	/**
+	 * Slide the window along by one byte.
+	 * 
+	 * @param value Rolling value of the window.
+	 * @param out First byte of the window, which is leaving it.
+	 * @param in Byte following the window, which is entering it.
+	 * @return Rolling value of the window after sliding it.
+	 */
+	public long roll(long value, byte out, byte in) {
+		return computer.fastAppend(config, value, in) ^ outTable[out & 0xFF];
+	}
+
+	/**
+	 * Get the CRC of the window from its rolling value.
+	 * 
+	 * @param value Rolling value of the window.
+	 * @return The CRC of the bytes in the window.
+	 */
+	public long getValue(long value) {
+		return computer.fastFinish(config, value);
+	}
+
+	/**
+	 * Find the chunk boundaries in part of an array.
+	 * <p>
+	 * A boundary is reported after every window whose CRC has all the bits of
+	 * {@code mask} set, so a mask of n bits gives chunks of about 2^n bytes.
+	 * Only windows wholly within the range are checked, so to scan a stream,
+	 * start each range {@code window - 1} bytes before the end of the last.
+	 * 
+	 * @param message Array holding the message to scan.
+	 * @param offset Index of the first byte to scan.
+	 * @param length Number of bytes to scan.
+	 * @param mask Bits of the CRC to check.
+	 * @param boundaries Receives the index following each window which matches,
+	 * 		in increasing order.
+	 */
+	public void scan(byte[] message, int offset, int length, long mask, IntConsumer boundaries) {
+		if ((offset < 0) || (length < 0) || (offset > message.length - length)) {
+			throw new ArrayIndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + message.length);
+		}
+		if (length < window) {
+			return;
+		}
+		long[] match = toRegister(mask);
+		long value = start(message, offset);
+		int end = offset + length;
+		for (int index=offset + window; ; index++) {
+			if ((value & match[0]) == match[1]) {
+				boundaries.accept(index);
+			}
+			if (index == end) {
+				break;
+			}
+			value = roll(value, message[index - window], message[index]);
+		}
+	}
+
+	/**
+	 * Find the chunk boundaries in the remaining bytes of a buffer.
+	 * <p>
+	 * As for {@link #scan(byte[], int, int, long, IntConsumer)}, with boundaries
+	 * reported as indexes in the buffer.  The buffer's position is advanced to
+	 * its limit.
+	 * 
+	 * @param message Buffer holding the message to scan.
+	 * @param mask Bits of the CRC to check.
+	 * @param boundaries Receives the index following each window which matches,
+	 * 		in increasing order.
+	 */
+	public void scan(ByteBuffer message, long mask, IntConsumer boundaries) {
+		int position = message.position();
+		int end = message.limit();
+		if (message.hasArray()) {
+			int base = message.arrayOffset();
+			scan(message.array(), base + position, end - position, mask, index -> boundaries.accept(index - base));
+		} else if (end - position >= window) {
+			long[] match = toRegister(mask);
+			long value = computer.fastStart(config);
+			for (int index=position; index<position + window; index++) {
+				value = computer.fastAppend(config, value, message.get(index));
+			}
+			for (int index=position + window; ; index++) {
+				if ((value & match[0]) == match[1]) {
+					boundaries.accept(index);
+				}
+				if (index == end) {
+					break;
+				}
+				value = roll(value, message.get(index - window), message.get(index));
+			}
+		}
+		message.position(end);
+	}
+
+	/**
+	 * Move a CRC mask into the register format.
+	 * <p>
+	 * The final steps of the calculation only move and invert bits, so each
+	 * register bit is traced through them once, and the check is then a single
+	 * AND and compare of the rolling value.
+	 * 
+	 * @param mask Bits of the CRC which must all be set.
+	 * @return The register bits to check, and the value they must have.
+	 */
+	private long[] toRegister(long mask) {
+		if ((mask & ~config.mask) != 0) {
+			throw new IllegalArgumentException("Mask must be within the CRC.");
+		}
+		long finalXOR = computer.fastFinish(config, 0);
+		long bits = 0;
+		long value = 0;
+		for (int bit=0; bit<64; bit++) {
+			long moved = computer.fastFinish(config, 1L << bit) ^ finalXOR;
+			if ((moved & mask) != 0) {
+				bits |= 1L << bit;
+				if ((moved & ~finalXOR) != 0) {
+					value |= 1L << bit;
+				}
+			}
+		}
+		return new long[] {bits, value};
+	}
+}
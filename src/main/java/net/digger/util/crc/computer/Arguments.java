@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+/**
+ * Argument checks shared by the computers.
+ * 
+ * @author walton
+ */
+final class Arguments {
+	private Arguments() {}
+
+	/**
+	 * Check that a range lies within an array.
+	 * 
+	 * @param data Array the range refers to.
+	 * @param offset Index of the first byte in the range.
+	 * @param length Number of bytes in the range.
+	 * @throws ArrayIndexOutOfBoundsException If the range is not within the array.
+	 */
+	static void checkRange(byte[] data, int offset, int length) {
+		if ((offset < 0) || (length < 0) || (offset > data.length - length)) {
+			throw new ArrayIndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + data.length);
+		}
+	}
+
+	/**
+	 * Check that a number of bytes is not negative.
+	 * 
+	 * @param length Number of bytes.
+	 * @throws IllegalArgumentException If the number is negative.
+	 */
+	static void checkLength(long length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Length must not be negative: " + length);
+		}
+	}
+
+	/**
+	 * Check that the arrays describing a batch of messages agree with each other,
+	 * and that each message lies within the data array.
+	 * 
+	 * @param data Array holding the messages.
+	 * @param offsets Index of the first byte of each message.
+	 * @param lengths Number of bytes in each message.
+	 * @param results Array to store the result of each message in.
+	 * @throws IllegalArgumentException If the offsets, lengths and results arrays
+	 * 		are not all the same length.
+	 * @throws ArrayIndexOutOfBoundsException If a message is not within the data array.
+	 */
+	static void checkBatch(byte[] data, int[] offsets, int[] lengths, long[] results) {
+		if ((offsets.length != lengths.length) || (offsets.length != results.length)) {
+			throw new IllegalArgumentException("Offsets, lengths and results must be the same length.");
+		}
+		for (int i=0; i<offsets.length; i++) {
+			checkRange(data, offsets[i], lengths[i]);
+		}
+	}
+
+	/**
+	 * Check that a changed range of a message has the same length before and
+	 * after the change, and lies within the message.
+	 * 
+	 * @param length Number of bytes in the message.
+	 * @param offset Index of the first changed byte.
+	 * @param oldBytes Bytes of the range before the change.
+	 * @param newBytes Bytes of the range after the change.
+	 */
+	static void checkPatch(long length, long offset, byte[] oldBytes, byte[] newBytes) {
+		if (oldBytes.length != newBytes.length) {
+			throw new IllegalArgumentException("Old and new bytes must be the same length.");
+		}
+		if ((offset < 0) || (offset > length - oldBytes.length)) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + oldBytes.length
+					+ ") out of bounds for length " + length);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+/**
+ * Helpers for reading multi-byte words out of byte arrays.
+ * 
+ * @author walton
+ */
+final class ByteArrays {
+	private ByteArrays() {}
+
+	/**
+	 * Read 8 bytes as a big-endian long.
+	 * 
+	 * @param data Array to read from.
+	 * @param index Index of the first byte.
+	 * @return The 8 bytes, first byte in the most significant position.
+	 */
+	static long getLongBE(byte[] data, int index) {
+		return ((long)data[index] << 56)
+				| ((data[index + 1] & 0xFFL) << 48)
+				| ((data[index + 2] & 0xFFL) << 40)
+				| ((data[index + 3] & 0xFFL) << 32)
+				| ((data[index + 4] & 0xFFL) << 24)
+				| ((data[index + 5] & 0xFFL) << 16)
+				| ((data[index + 6] & 0xFFL) << 8)
+				| (data[index + 7] & 0xFFL);
+	}
+
+	/**
+	 * Read 8 bytes as a little-endian long.
+	 * 
+	 * @param data Array to read from.
+	 * @param index Index of the first byte.
+	 * @return The 8 bytes, first byte in the least significant position.
+	 */
+	static long getLongLE(byte[] data, int index) {
+		return (data[index] & 0xFFL)
+				| ((data[index + 1] & 0xFFL) << 8)
+				| ((data[index + 2] & 0xFFL) << 16)
+				| ((data[index + 3] & 0xFFL) << 24)
+				| ((data[index + 4] & 0xFFL) << 32)
+				| ((data[index + 5] & 0xFFL) << 40)
+				| ((data[index + 6] & 0xFFL) << 48)
+				| ((long)data[index + 7] << 56);
+	}
+}
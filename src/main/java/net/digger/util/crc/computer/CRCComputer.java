@@ -16,6 +16,10 @@
  */
 package net.digger.util.crc.computer;
 
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import java.util.zip.Checksum;
+
 import net.digger.util.crc.config.CRCConfig;
 
 /**
@@ -25,16 +29,40 @@ import net.digger.util.crc.config.CRCConfig;
  */
 public class CRCComputer implements Computer<CRCConfig, CRCComputer> {
 	/**
-	 * Lookup table for fast method.
+	 * Lookup table engine for fast method.
+	 */
+	private TableEngine engine;
+	/**
+	 * JDK checksum for each thread, or {@code null} if the JDK has no match.
+	 * Computers are shared between threads, so each thread reuses its own.
+	 * Computers are also shared between configurations with the same tables,
+	 * so whether it applies is checked for each call.
 	 */
-	private final long[] crcTable = new long[256];
+	private ThreadLocal<Checksum> intrinsics;
 
 	@Override
 	public long slow(CRCConfig config, byte[] message) {
+		return slow(config, message, 0, message.length);
+	}
+
+	@Override
+	public long slow(CRCConfig config, byte[] message, int offset, int length) {
+		Arguments.checkRange(message, offset, length);
 		long crc = config.initialValue;
 		// Perform modulo-2 division, a byte at a time.
-		for (byte b : message) {
-			crc = slowCore(config, crc, b);
+		for (int i=offset; i<offset + length; i++) {
+			crc = slowCore(config, crc, message[i]);
+		}
+		// The final remainder is the CRC result.
+		return finalize(config, crc);
+	}
+
+	@Override
+	public long slow(CRCConfig config, ByteBuffer message) {
+		long crc = config.initialValue;
+		// Perform modulo-2 division, a byte at a time.
+		while (message.hasRemaining()) {
+			crc = slowCore(config, crc, message.get());
 		}
 		// The final remainder is the CRC result.
 		return finalize(config, crc);
@@ -51,48 +79,310 @@ public class CRCComputer implements Computer<CRCConfig, CRCComputer> {
 		return finalize(config, crc);
 	}
 
+	/**
+	 * Compute the CRC of two messages joined together, from their separate CRCs.
+	 * <p>
+	 * The CRC register is linear over GF(2), so the register after both messages
+	 * is the register after the first message, advanced over {@code lengthB}
+	 * zero bytes, combined with the register after the second.  The initial
+	 * value is removed from the first so it is not counted twice.  This takes
+	 * time proportional to the log of {@code lengthB}, and does not need the
+	 * lookup tables.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param crcA CRC of the first message.
+	 * @param crcB CRC of the second message.
+	 * @param lengthB Number of bytes in the second message.
+	 * @return The CRC of the first message followed by the second.
+	 * @throws IllegalArgumentException If {@code lengthB} is negative.
+	 */
+	@Override
+	public long combine(CRCConfig config, long crcA, long crcB, long lengthB) {
+		Arguments.checkLength(lengthB);
+		long registerA = unfinalize(config, crcA) ^ config.initialValue;
+		long registerB = unfinalize(config, crcB);
+		long shifted = GF2.zeroBytes(config, registerA, lengthB);
+		return finalize(config, shifted ^ registerB);
+	}
+
+	/**
+	 * Compute the CRC of a message after a range of its bytes is changed,
+	 * from its CRC before the change.
+	 * <p>
+	 * The CRC register is linear over GF(2), so the change in the register is
+	 * the register for the XOR of the old and new bytes, starting from zero,
+	 * advanced over the bytes which follow the range.  This takes time
+	 * proportional to the number of changed bytes plus the log of the
+	 * message length, and does not need the lookup tables.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param crc CRC of the message before the change.
+	 * @param length Number of bytes in the message.
+	 * @param offset Index of the first changed byte.
+	 * @param oldBytes Bytes of the range before the change.
+	 * @param newBytes Bytes of the range after the change.
+	 * @return The CRC of the message after the change.
+	 */
 	@Override
-	public void fastInit(CRCConfig config) {
-		long crc;
-		// Compute the remainder of each possible dividend.
-		for (char dividend=0; dividend<256; ++dividend) {
-			// Start with the dividend followed by zeros.
-			crc = (long)dividend << (config.bits - 8);
-			crc = fastInitCore(config, crc);
-			// Store the result into the table.
-			crcTable[dividend] = crc;
+	public long updateRange(CRCConfig config, long crc, long length, long offset, byte[] oldBytes, byte[] newBytes) {
+		Arguments.checkPatch(length, offset, oldBytes, newBytes);
+		long delta = 0;
+		for (int i=0; i<oldBytes.length; i++) {
+			delta = slowCore(config, delta, (byte)(oldBytes[i] ^ newBytes[i]));
 		}
+		long following = length - offset - oldBytes.length;
+		delta = GF2.zeroBytes(config, delta, following);
+		return finalize(config, unfinalize(config, crc) ^ delta);
+	}
+
+	@Override
+	public void fastInit(CRCConfig config) {
+		engine = TableEngine.create(config);
+		Supplier<Checksum> supplier = Intrinsics.supplier(config);
+		intrinsics = (supplier != null) ? ThreadLocal.withInitial(supplier) : null;
 	}
 
 	@Override
 	public long fast(CRCConfig config, byte[] message) {
-		long crc = config.initialValue;
-		// Divide the message by the polynomial, a byte at a time.
-		for (byte b : message) {
-			crc = fastCore(config, crc, b);
+		return fast(config, message, 0, message.length);
+	}
+
+	@Override
+	public long fast(CRCConfig config, byte[] message, int offset, int length) {
+		Arguments.checkRange(message, offset, length);
+		if (useIntrinsic(config)) {
+			Checksum intrinsic = intrinsic();
+			intrinsic.update(message, offset, length);
+			return intrinsic.getValue();
 		}
+		long register = engine.start(config);
+		// Divide the message by the polynomial, several bytes at a time.
+		register = engine.update(register, message, offset, length);
 		// The final remainder is the CRC.
-		return finalize(config, crc);
+		return engine.finish(config, register);
+	}
+
+	@Override
+	public long fast(CRCConfig config, ByteBuffer message) {
+		if (useIntrinsic(config)) {
+			Checksum intrinsic = intrinsic();
+			Intrinsics.update(intrinsic, message);
+			return intrinsic.getValue();
+		}
+		long register = engine.start(config);
+		// Divide the message by the polynomial, several bytes at a time.
+		register = engine.update(register, message);
+		// The final remainder is the CRC.
+		return engine.finish(config, register);
 	}
 
 	@Override
 	public long fastUpdate(CRCConfig config, Long crc, byte b) {
+		long register;
 		if (crc == null) {
-			crc = config.initialValue;
+			register = engine.start(config);
 		} else {
-			crc = unfinalize(config, crc);
+			register = engine.resume(config, crc);
 		}
-		crc = fastCore(config, crc, b);
-		return finalize(config, crc);
+		register = engine.update(register, b);
+		return engine.finish(config, register);
+	}
+
+	@Override
+	public void fastBatch(CRCConfig config, byte[][] messages, long[] results) {
+		if (messages.length != results.length) {
+			throw new IllegalArgumentException("Messages and results must be the same length.");
+		}
+		batch(config, messages, null, null, null, results);
+	}
+
+	@Override
+	public void fastBatch(CRCConfig config, byte[] data, int[] offsets, int[] lengths, long[] results) {
+		Arguments.checkBatch(data, offsets, lengths, results);
+		batch(config, null, data, offsets, lengths, results);
+	}
+
+	@Override
+	public long fastStart(CRCConfig config) {
+		return engine.start(config);
+	}
+
+	@Override
+	public long fastAppend(CRCConfig config, long register, byte b) {
+		return engine.update(register, b);
+	}
+
+	@Override
+	public long fastAppend(CRCConfig config, long register, byte[] message, int offset, int length) {
+		Arguments.checkRange(message, offset, length);
+		if ((length >= Intrinsics.APPEND_THRESHOLD) || (register == engine.start(config))) {
+			if (useIntrinsic(config)) {
+				Checksum intrinsic = intrinsic();
+				intrinsic.update(message, offset, length);
+				return append(config, register, intrinsic, length);
+			}
+		}
+		return engine.update(register, message, offset, length);
+	}
+
+	@Override
+	public long fastAppend(CRCConfig config, long register, ByteBuffer message) {
+		int length = message.remaining();
+		if ((length >= Intrinsics.APPEND_THRESHOLD) || (register == engine.start(config))) {
+			if (useIntrinsic(config)) {
+				Checksum intrinsic = intrinsic();
+				Intrinsics.update(intrinsic, message);
+				return append(config, register, intrinsic, length);
+			}
+		}
+		return engine.update(register, message);
+	}
+
+	@Override
+	public long fastFinish(CRCConfig config, long register) {
+		return engine.finish(config, register);
+	}
+
+	/**
+	 * Get the register value left after a message followed by its own CRC.
+	 * <p>
+	 * The CRC must be appended in the order its bytes leave the register:
+	 * least significant byte first if exactly one of {@code reflectInputBits}
+	 * and {@code reflectOutputBytes} is set, and most significant byte first
+	 * otherwise.  Appending the register to itself cancels it, so only the
+	 * final XOR value is left, advanced over the CRC's bytes.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return Internal register value.
+	 * @throws UnsupportedOperationException If the CRC is not a whole number of
+	 * 		bytes, or reflects its input and output bits differently.
+	 */
+	@Override
+	public long fastResidue(CRCConfig config) {
+		if ((config.bits % 8 != 0) || (config.reflectInputBits != config.reflectOutputBits)) {
+			throw new UnsupportedOperationException("Residue requires whole bytes, and the same input and output reflection.");
+		}
+		long finalXOR = config.finalXORValue & config.mask;
+		if (config.reflectOutputBits) {
+			finalXOR = reflectBits(finalXOR, config.bits);
+		}
+		return engine.fromPlain(GF2.zeroBytes(config, finalXOR, config.bytes));
 	}
 
 
 	// ##### Internal implementation methods
+
+	/**
+	 * Check whether the JDK checksum gives the CRC of a configuration.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return {@code true} if the JDK checksum can be used.
+	 */
+	private boolean useIntrinsic(CRCConfig config) {
+		return (intrinsics != null) && Intrinsics.matchesValues(config);
+	}
+
+	/**
+	 * Get this thread's JDK checksum, reset to the initial value.
+	 * 
+	 * @return JDK checksum matching the configuration.
+	 */
+	private Checksum intrinsic() {
+		Checksum intrinsic = intrinsics.get();
+		intrinsic.reset();
+		return intrinsic;
+	}
+
+	/**
+	 * Append the result of a JDK checksum to a register.
+	 * <p>
+	 * The JDK checksum always starts from the initial value, so the existing
+	 * register is advanced over the same number of zero bytes and combined
+	 * with it, as in {@link #combine(CRCConfig, long, long, long)}.  If the
+	 * register is still at the initial value there is nothing to combine, so
+	 * any length is worth handing to the JDK checksum.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Internal register value before the JDK checksum's bytes.
+	 * @param intrinsic JDK checksum of the following bytes.
+	 * @param length Number of bytes processed by the JDK checksum.
+	 * @return Internal register value after the JDK checksum's bytes.
+	 */
+	private long append(CRCConfig config, long register, Checksum intrinsic, long length) {
+		if (register == engine.start(config)) {
+			return engine.resume(config, intrinsic.getValue());
+		}
+		long plain = engine.toPlain(register ^ engine.start(config));
+		long shifted = engine.fromPlain(GF2.zeroBytes(config, plain, length));
+		return shifted ^ engine.resume(config, intrinsic.getValue());
+	}
 	
+	/**
+	 * Compute the CRCs of a batch of messages, four at a time.
+	 * <p>
+	 * The messages are either separate arrays, or ranges of a single array.
+	 * Each group of four is run through the engine in step for the length of
+	 * its shortest message, then the rest of each message is finished alone.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param messages Separate message arrays, or {@code null} if using {@code data}.
+	 * @param data Array holding all the messages, or {@code null} if using {@code messages}.
+	 * @param offsets Index of the first byte of each message in {@code data}.
+	 * @param lengths Number of bytes in each message in {@code data}.
+	 * @param results Array to store the CRC of each message in.
+	 */
+	private void batch(CRCConfig config, byte[][] messages, byte[] data, int[] offsets, int[] lengths, long[] results) {
+		int count = results.length;
+		if (useIntrinsic(config)) {
+			Checksum intrinsic = intrinsics.get();
+			for (int i=0; i<count; i++) {
+				intrinsic.reset();
+				if (messages != null) {
+					intrinsic.update(messages[i], 0, messages[i].length);
+				} else {
+					intrinsic.update(data, offsets[i], lengths[i]);
+				}
+				results[i] = intrinsic.getValue();
+			}
+			return;
+		}
+		long start = engine.start(config);
+		long[] registers = new long[4];
+		byte[][] m = new byte[4][];
+		int[] o = new int[4];
+		int[] l = new int[4];
+		int i = 0;
+		for (; count - i >= 4; i += 4) {
+			int common = Integer.MAX_VALUE;
+			for (int k=0; k<4; k++) {
+				m[k] = (messages != null) ? messages[i + k] : data;
+				o[k] = (messages != null) ? 0 : offsets[i + k];
+				l[k] = (messages != null) ? m[k].length : lengths[i + k];
+				common = Math.min(common, l[k]);
+				registers[k] = start;
+			}
+			engine.update4(registers, m[0], o[0], m[1], o[1], m[2], o[2], m[3], o[3], common);
+			for (int k=0; k<4; k++) {
+				long register = engine.update(registers[k], m[k], o[k] + common, l[k] - common);
+				results[i + k] = engine.finish(config, register);
+			}
+		}
+		// Finish any remaining messages one at a time.
+		for (; i < count; i++) {
+			long register;
+			if (messages != null) {
+				register = engine.update(start, messages[i], 0, messages[i].length);
+			} else {
+				register = engine.update(start, data, offsets[i], lengths[i]);
+			}
+			results[i] = engine.finish(config, register);
+		}
+	}
+
 	/**
 	 * Main part of the slower computational CRC method.
 	 * <p>
-	 * Used by {@link #slow(CRCConfig, byte[])} and {@link #slowUpdate(CRCConfig, Long, byte)}.
+	 * Used by the {@code slow} methods and {@link #slowUpdate(CRCConfig, Long, byte)}.
 	 * 
 	 * @param config CRC configuration to use.
 	 * @param crc Current value of the CRC.
@@ -101,31 +391,39 @@ public class CRCComputer implements Computer<CRCConfig, CRCComputer> {
 	 */
 	private long slowCore(CRCConfig config, long crc, byte b) {
 		// Bring the next byte into the crc.
-		long data = b;
+		long data = b & 0xFF;
 		if (config.reflectInputBits) {
 			data = reflectBits(data, 8);
 		}
+		if (config.bits < 8) {
+			// Too narrow to hold a whole byte, so work at the top of a byte instead.
+			int shift = 8 - config.bits;
+			crc = divideCore((crc << shift) ^ data, 0x80, config.polynomial << shift, 0xFF);
+			return crc >>> shift;
+		}
 		crc ^= (data << (config.bits - 8));
-		crc = fastInitCore(config, crc);
+		crc = divideCore(crc, config.topBit, config.polynomial, config.mask);
 		return crc;
 	}
 
 	/**
-	 * Main part of the CRC lookup table population.
+	 * Perform modulo-2 division of the top byte of the CRC.
 	 * <p>
-	 * Used by {@link #fastInit(CRCConfig)} and {@link #slowCore(CRCConfig, long, byte)}.
+	 * Used by {@link #slowCore(CRCConfig, long, byte)}.
 	 * 
-	 * @param config CRC configuration to use.
 	 * @param crc Current value of the partial CRC.
-	 * @return The partial CRC to add to lookup table.
+	 * @param topBit Highest bit of the partial CRC.
+	 * @param polynomial Polynomial, aligned with the partial CRC.
+	 * @param mask Mask of the bits in the partial CRC.
+	 * @return The partial CRC after division.
 	 */
-	private long fastInitCore(CRCConfig config, long crc) {
+	private long divideCore(long crc, long topBit, long polynomial, long mask) {
 		// Perform modulo-2 division, a bit at a time.
 		for (char bit=8; bit>0; bit--) {
 			// Try to divide the current data bit.
-			if ((crc & config.topBit) > 0) {
-				crc = (crc << 1) & config.mask;
-				crc ^= config.polynomial;
+			if ((crc & topBit) != 0) {
+				crc = (crc << 1) & mask;
+				crc ^= polynomial;
 			} else {
 				crc <<= 1;
 			}
@@ -133,73 +431,35 @@ public class CRCComputer implements Computer<CRCConfig, CRCComputer> {
 		return crc;
 	}
 	
-	/**
-	 * Main part of the faster table-driven CRC method.
-	 * <p>
-	 * Used by {@link #fast(CRCConfig, byte[])} and {@link #fastUpdate(CRCConfig, Long, byte)}.
-	 * 
-	 * @param config CRC configuration to use.
-	 * @param crc Current value of the CRC.
-	 * @param b Next byte of the message to calculate CRC for.
-	 * @return The CRC of the message so far.
-	 */
-	private long fastCore(CRCConfig config, long crc, byte b) {
-		// Bring the next byte into the crc.
-		char data = (char)b;
-		if (config.reflectInputBits) {
-			data = (char)reflectBits(data, 8);
-		}
-		data ^= crc >>> (config.bits - 8);
-		crc = (crc << 8) & config.mask;
-		crc = crcTable[data] ^ crc;
-		return crc;
-	}
 
-	
 	// ##### Utility methods
 
 	/**
 	 * Reorder the bits of a binary sequence, by reflecting
 	 * them about the middle position.
 	 * <p>
-	 * No checking is done that {@literal nBits <= 32}.
+	 * No checking is done that {@literal nBits <= 64}.
 	 * 
 	 * @param data Value to reflect bits in.
 	 * @param nBits Number of bits to reflect.
 	 * @return The reflection of the original data.
 	 */
 	protected long reflectBits(long data, int nBits) {
-		long reflection = 0x00000000;
-		// Reflect the data about the center bit.
-		for (char bit=0; bit<nBits; bit++) {
-			// If the LSB bit is set, set the reflection of it.
-			if ((data & 0x01) > 0) {
-				reflection |= (1L << ((nBits - 1) - bit));
-			}
-			data >>>= 1;
-		}
-		return reflection;
+		return TableEngine.reflect(data, nBits);
 	}
 	
 	/**
 	 * Reorder the bytes of a binary sequence, by reflecting
 	 * them about the middle position.
 	 * <p>
-	 * No checking is done that {@literal nBytes <= 4}.
+	 * No checking is done that {@literal nBytes <= 8}.
 	 * 
 	 * @param data Value to reflect bytes in.
 	 * @param nBytes Number of bytes to reflect.
 	 * @return The reflection of the original data.
 	 */
 	protected long reflectBytes(long data, int nBytes) {
-		long reflection = 0x00000000;
-		// Reflect the data about the center byte.
-		for (char nByte=0; nByte<nBytes; nByte++) {
-			// Set the reflection of the low byte.
-			reflection |= ((data & 0xFF) << (((nBytes - 1) - nByte) * 8));
-			data >>>= 8;
-		}
-		return reflection;
+		return TableEngine.reflectBytes(data, nBytes);
 	}
 	
 	/**
@@ -16,14 +16,34 @@
  */
 package net.digger.util.crc.computer;
 
+import java.nio.ByteBuffer;
+
 import net.digger.util.crc.config.ChecksumConfig;
 
 /**
  * Checksum computation class.
+ * <p>
+ * Bytes are added as signed values.  For speed, the sum is calculated 8
+ * bytes at a time: the unsigned bytes are added in 16-bit lanes, and 256
+ * subtracted for each byte with its sign bit set.
  * 
  * @author walton
  */
 public class ChecksumComputer implements Computer<ChecksumConfig, ChecksumComputer> {
+	/**
+	 * Selects alternate bytes of a word, as four 16-bit lanes.
+	 */
+	private static final long LANE_MASK = 0x00FF00FF00FF00FFL;
+	/**
+	 * Selects the sign bit of each byte of a word.
+	 */
+	private static final long SIGN_MASK = 0x8080808080808080L;
+	/**
+	 * Number of words which can be added into 16-bit lanes without overflow,
+	 * since each word adds at most 2 * 255 to each lane.
+	 */
+	private static final int BLOCK_WORDS = 128;
+
 	/**
 	 * Compute the checksum of a given message.
 	 * <p>
@@ -38,6 +58,36 @@ public class ChecksumComputer implements Computer<ChecksumConfig, ChecksumComput
 		return fast(config, message);
 	}
 
+	/**
+	 * Compute the checksum of part of an array.
+	 * <p>
+	 * For ChecksumComputer, there is actually no difference between fast and slow methods.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param message Array holding the message to calculate checksum for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The checksum of the message.
+	 */
+	@Override
+	public long slow(ChecksumConfig config, byte[] message, int offset, int length) {
+		return fast(config, message, offset, length);
+	}
+
+	/**
+	 * Compute the checksum of the remaining bytes of a buffer.
+	 * <p>
+	 * For ChecksumComputer, there is actually no difference between fast and slow methods.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param message Buffer holding the message to calculate checksum for.
+	 * @return The checksum of the message.
+	 */
+	@Override
+	public long slow(ChecksumConfig config, ByteBuffer message) {
+		return fast(config, message);
+	}
+
 	/**
 	 * Update an incremental checksum with a new byte.
 	 * <p>
@@ -53,6 +103,44 @@ public class ChecksumComputer implements Computer<ChecksumConfig, ChecksumComput
 		return fastUpdate(config, sum, b);
 	}
 
+	/**
+	 * Compute the checksum of two messages joined together, from their separate checksums.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param sumA Checksum of the first message.
+	 * @param sumB Checksum of the second message.
+	 * @param lengthB Number of bytes in the second message (not used).
+	 * @return The checksum of the first message followed by the second.
+	 * @throws IllegalArgumentException If {@code lengthB} is negative.
+	 */
+	@Override
+	public long combine(ChecksumConfig config, long sumA, long sumB, long lengthB) {
+		Arguments.checkLength(lengthB);
+		return (sumA + sumB - config.initialValue) & config.mask;
+	}
+
+	/**
+	 * Compute the checksum of a message after a range of its bytes is changed,
+	 * from its checksum before the change.
+	 * <p>
+	 * The old bytes are subtracted from the sum, and the new bytes added.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param sum Checksum of the message before the change.
+	 * @param length Number of bytes in the message.
+	 * @param offset Index of the first changed byte.
+	 * @param oldBytes Bytes of the range before the change.
+	 * @param newBytes Bytes of the range after the change.
+	 * @return The checksum of the message after the change.
+	 */
+	@Override
+	public long updateRange(ChecksumConfig config, long sum, long length, long offset, byte[] oldBytes, byte[] newBytes) {
+		Arguments.checkPatch(length, offset, oldBytes, newBytes);
+		sum -= fastAppend(config, 0, oldBytes, 0, oldBytes.length);
+		sum += fastAppend(config, 0, newBytes, 0, newBytes.length);
+		return sum & config.mask;
+	}
+
 	/**
 	 * Not implemented in ChecksumComputer.
 	 * 
@@ -72,10 +160,38 @@ public class ChecksumComputer implements Computer<ChecksumConfig, ChecksumComput
 	 */
 	@Override
 	public long fast(ChecksumConfig config, byte[] message) {
-		long sum = config.initialValue;
-		for (byte b : message) {
-			sum += b;
-		}
+		return fast(config, message, 0, message.length);
+	}
+
+	/**
+	 * Compute the checksum of part of an array.
+	 * <p>
+	 * For ChecksumComputer, there is actually no difference between fast and slow methods.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param message Array holding the message to calculate checksum for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The checksum of the message.
+	 */
+	@Override
+	public long fast(ChecksumConfig config, byte[] message, int offset, int length) {
+		long sum = fastAppend(config, config.initialValue, message, offset, length);
+		return sum & config.mask;
+	}
+
+	/**
+	 * Compute the checksum of the remaining bytes of a buffer.
+	 * <p>
+	 * For ChecksumComputer, there is actually no difference between fast and slow methods.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param message Buffer holding the message to calculate checksum for.
+	 * @return The checksum of the message.
+	 */
+	@Override
+	public long fast(ChecksumConfig config, ByteBuffer message) {
+		long sum = fastAppend(config, config.initialValue, message);
 		return sum & config.mask;
 	}
 
@@ -97,4 +213,175 @@ public class ChecksumComputer implements Computer<ChecksumConfig, ChecksumComput
 		sum += b;
 		return sum & config.mask;
 	}
+
+	/**
+	 * Compute the checksums of many messages.
+	 * <p>
+	 * The word-at-a-time summing already keeps several additions in flight,
+	 * so the messages are simply summed one after another.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param messages Messages to calculate checksums for.
+	 * @param results Array to store the checksum of each message in, at the same index.
+	 */
+	@Override
+	public void fastBatch(ChecksumConfig config, byte[][] messages, long[] results) {
+		if (messages.length != results.length) {
+			throw new IllegalArgumentException("Messages and results must be the same length.");
+		}
+		for (int i=0; i<messages.length; i++) {
+			results[i] = fast(config, messages[i]);
+		}
+	}
+
+	/**
+	 * Compute the checksums of many messages held in one array.
+	 * <p>
+	 * The word-at-a-time summing already keeps several additions in flight,
+	 * so the messages are simply summed one after another.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param data Array holding the messages to calculate checksums for.
+	 * @param offsets Index of the first byte of each message.
+	 * @param lengths Number of bytes in each message.
+	 * @param results Array to store the checksum of each message in, at the same index.
+	 */
+	@Override
+	public void fastBatch(ChecksumConfig config, byte[] data, int[] offsets, int[] lengths, long[] results) {
+		Arguments.checkBatch(data, offsets, lengths, results);
+		for (int i=0; i<offsets.length; i++) {
+			results[i] = fast(config, data, offsets[i], lengths[i]);
+		}
+	}
+
+	/**
+	 * Get the sum to start an incremental checksum with.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @return Initial sum.
+	 */
+	@Override
+	public long fastStart(ChecksumConfig config) {
+		return config.initialValue;
+	}
+
+	/**
+	 * Add a new byte to an incremental sum.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param sum Current sum.
+	 * @param b Next byte of the message to calculate checksum for.
+	 * @return Updated sum.
+	 */
+	@Override
+	public long fastAppend(ChecksumConfig config, long sum, byte b) {
+		return sum + b;
+	}
+
+	/**
+	 * Add part of an array to an incremental sum.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param sum Current sum.
+	 * @param message Array holding the next part of the message.
+	 * @param offset Index of the first byte to process.
+	 * @param length Number of bytes to process.
+	 * @return Updated sum.
+	 */
+	@Override
+	public long fastAppend(ChecksumConfig config, long sum, byte[] message, int offset, int length) {
+		Arguments.checkRange(message, offset, length);
+		int end = offset + length;
+		// Add 8 bytes at a time, in blocks small enough that the lanes can't overflow.
+		while (end - offset >= 8) {
+			int words = Math.min((end - offset) >>> 3, BLOCK_WORDS);
+			long lanes = 0;
+			long negative = 0;
+			for (int i=0; i<words; i++, offset+=8) {
+				long word = ByteArrays.getLongLE(message, offset);
+				lanes += (word & LANE_MASK) + ((word >>> 8) & LANE_MASK);
+				negative += Long.bitCount(word & SIGN_MASK);
+			}
+			sum += foldLanes(lanes) - (negative << 8);
+		}
+		for (; offset<end; offset++) {
+			sum += message[offset];
+		}
+		return sum;
+	}
+
+	/**
+	 * Add the remaining bytes of a buffer to an incremental sum.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param sum Current sum.
+	 * @param message Buffer holding the next part of the message.
+	 * @return Updated sum.
+	 */
+	@Override
+	public long fastAppend(ChecksumConfig config, long sum, ByteBuffer message) {
+		int position = message.position();
+		int limit = message.limit();
+		if (message.hasArray()) {
+			sum = fastAppend(config, sum, message.array(), message.arrayOffset() + position, limit - position);
+		} else {
+			int index = position;
+			// Add 8 bytes at a time, in blocks small enough that the lanes can't overflow.
+			// The byte order doesn't matter, since every byte is added.
+			while (limit - index >= 8) {
+				int words = Math.min((limit - index) >>> 3, BLOCK_WORDS);
+				long lanes = 0;
+				long negative = 0;
+				for (int i=0; i<words; i++, index+=8) {
+					long word = message.getLong(index);
+					lanes += (word & LANE_MASK) + ((word >>> 8) & LANE_MASK);
+					negative += Long.bitCount(word & SIGN_MASK);
+				}
+				sum += foldLanes(lanes) - (negative << 8);
+			}
+			for (; index<limit; index++) {
+				sum += message.get(index);
+			}
+		}
+		message.position(limit);
+		return sum;
+	}
+
+	/**
+	 * Compute the checksum from an incremental sum.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @param sum Current sum.
+	 * @return The checksum of the message so far.
+	 */
+	@Override
+	public long fastFinish(ChecksumConfig config, long sum) {
+		return sum & config.mask;
+	}
+
+	/**
+	 * Not implemented in ChecksumComputer, since appending a checksum to a
+	 * message does not leave a constant sum.
+	 * 
+	 * @param config Checksum configuration to use.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException Always.
+	 */
+	@Override
+	public long fastResidue(ChecksumConfig config) {
+		throw new UnsupportedOperationException("Checksums have no residue.");
+	}
+
+	/**
+	 * Add together the four 16-bit lanes of a word.
+	 * 
+	 * @param lanes Lanes to add.
+	 * @return Sum of the lanes.
+	 */
+	private static long foldLanes(long lanes) {
+		lanes = (lanes & 0x0000FFFF0000FFFFL) + ((lanes >>> 16) & 0x0000FFFF0000FFFFL);
+		return (lanes & 0xFFFFFFFFL) + (lanes >>> 32);
+	}
 }
@@ -16,6 +16,8 @@
  */
 package net.digger.util.crc.computer;
 
+import java.nio.ByteBuffer;
+
 import net.digger.util.crc.config.Config;
 
 /**
@@ -38,6 +40,28 @@ public interface Computer<T extends Config<U, T>, U extends Computer<T, U>> {
 	 */
 	public long slow(T config, byte[] message);
 
+	/**
+	 * Compute the CRC of part of an array using the slower computational method.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The CRC of the message.
+	 */
+	public long slow(T config, byte[] message, int offset, int length);
+
+	/**
+	 * Compute the CRC of the remaining bytes of a buffer using the slower computational method.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param message Buffer holding the message to calculate CRC for.
+	 * @return The CRC of the message.
+	 */
+	public long slow(T config, ByteBuffer message);
+
 	/**
 	 * Update an incremental CRC with a new byte using the slower computational method.
 	 * 
@@ -48,6 +72,32 @@ public interface Computer<T extends Config<U, T>, U extends Computer<T, U>> {
 	 */
 	public long slowUpdate(T config, Long crc, byte b);
 
+	/**
+	 * Compute the CRC of two messages joined together, from their separate CRCs.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param crcA CRC of the first message.
+	 * @param crcB CRC of the second message.
+	 * @param lengthB Number of bytes in the second message.
+	 * @return The CRC of the first message followed by the second.
+	 * @throws IllegalArgumentException If {@code lengthB} is negative.
+	 */
+	public long combine(T config, long crcA, long crcB, long lengthB);
+
+	/**
+	 * Compute the CRC of a message after a range of its bytes is changed,
+	 * from its CRC before the change.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param crc CRC of the message before the change.
+	 * @param length Number of bytes in the message.
+	 * @param offset Index of the first changed byte.
+	 * @param oldBytes Bytes of the range before the change.
+	 * @param newBytes Bytes of the range after the change.
+	 * @return The CRC of the message after the change.
+	 */
+	public long updateRange(T config, long crc, long length, long offset, byte[] oldBytes, byte[] newBytes);
+
 	// ##### CRC table initialization calculations
 
 	/**
@@ -67,6 +117,28 @@ public interface Computer<T extends Config<U, T>, U extends Computer<T, U>> {
 	 * @return The CRC of the message.
 	 */
 	public long fast(T config, byte[] message);
+
+	/**
+	 * Compute the CRC of part of an array using the faster table-driven method.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte of the message.
+	 * @param length Number of bytes in the message.
+	 * @return The CRC of the message.
+	 */
+	public long fast(T config, byte[] message, int offset, int length);
+
+	/**
+	 * Compute the CRC of the remaining bytes of a buffer using the faster table-driven method.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param message Buffer holding the message to calculate CRC for.
+	 * @return The CRC of the message.
+	 */
+	public long fast(T config, ByteBuffer message);
 	
 	/**
 	 * Update an incremental CRC with a new byte using the faster table-driven method.
@@ -77,4 +149,99 @@ public interface Computer<T extends Config<U, T>, U extends Computer<T, U>> {
 	 * @return The CRC of the message so far.
 	 */
 	public long fastUpdate(T config, Long crc, byte b);
+
+	/**
+	 * Compute the CRCs of many messages using the faster table-driven method.
+	 * <p>
+	 * Implementations may calculate several messages at once, so that their
+	 * table lookups overlap.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param messages Messages to calculate CRCs for.
+	 * @param results Array to store the CRC of each message in, at the same index.
+	 */
+	public void fastBatch(T config, byte[][] messages, long[] results);
+
+	/**
+	 * Compute the CRCs of many messages held in one array using the faster table-driven method.
+	 * <p>
+	 * Implementations may calculate several messages at once, so that their
+	 * table lookups overlap.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param data Array holding the messages to calculate CRCs for.
+	 * @param offsets Index of the first byte of each message.
+	 * @param lengths Number of bytes in each message.
+	 * @param results Array to store the CRC of each message in, at the same index.
+	 */
+	public void fastBatch(T config, byte[] data, int[] offsets, int[] lengths, long[] results);
+
+	// ##### Register-level table-driven calculations
+
+	/**
+	 * Get the register value to start an incremental calculation with.
+	 * <p>
+	 * The register is in an internal format, which must only be passed to the
+	 * other register-level methods of the same Computer.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return Internal register value.
+	 */
+	public long fastStart(T config);
+
+	/**
+	 * Update a register with a new byte using the faster table-driven method.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Internal register value.
+	 * @param b Next byte of the message to calculate CRC for.
+	 * @return Updated internal register value.
+	 */
+	public long fastAppend(T config, long register, byte b);
+
+	/**
+	 * Update a register with part of an array using the faster table-driven method.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Internal register value.
+	 * @param message Array holding the next part of the message.
+	 * @param offset Index of the first byte to process.
+	 * @param length Number of bytes to process.
+	 * @return Updated internal register value.
+	 */
+	public long fastAppend(T config, long register, byte[] message, int offset, int length);
+
+	/**
+	 * Update a register with the remaining bytes of a buffer using the faster table-driven method.
+	 * <p>
+	 * The buffer's position is advanced to its limit.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Internal register value.
+	 * @param message Buffer holding the next part of the message.
+	 * @return Updated internal register value.
+	 */
+	public long fastAppend(T config, long register, ByteBuffer message);
+
+	/**
+	 * Compute the CRC from a register value.  The register is not modified.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Internal register value.
+	 * @return The CRC of the message so far.
+	 */
+	public long fastFinish(T config, long register);
+
+	/**
+	 * Get the register value left after a message followed by its own CRC.
+	 * <p>
+	 * This is the same for every message, so a received frame can be checked
+	 * by running the register over the whole frame, trailing CRC included,
+	 * and comparing the result with this value.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return Internal register value.
+	 * @throws UnsupportedOperationException If the configuration has no such value.
+	 */
+	public long fastResidue(T config);
 }
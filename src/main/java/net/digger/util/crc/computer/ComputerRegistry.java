@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.digger.util.crc.config.Config;
+
+/**
+ * Shared registry of Computer instances.
+ * <p>
+ * Computers with populated lookup tables are never modified, so one instance
+ * is shared by all configurations with the same {@link Config#getTableKey()}.
+ * Instances are created on first use, and are safe to use from any thread.
+ * 
+ * @author walton
+ */
+public final class ComputerRegistry {
+	/**
+	 * Computers for the table-driven method, keyed by table parameters.
+	 */
+	private static final ConcurrentMap<List<Object>, Computer<?, ?>> fastComputers = new ConcurrentHashMap<>();
+	/**
+	 * Computers for the computational method, keyed by class.
+	 */
+	private static final ConcurrentMap<Class<?>, Computer<?, ?>> slowComputers = new ConcurrentHashMap<>();
+
+	private ComputerRegistry() {}
+
+	/**
+	 * Get a Computer for the faster table-driven method, with its lookup tables populated.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @return Shared Computer instance.
+	 * @throws IllegalArgumentException If the Computer class could not be instantiated.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Config<U, T>, U extends Computer<T, U>> U getFast(T config) {
+		return (U)fastComputers.computeIfAbsent(config.getTableKey(), key -> {
+			U computer = newInstance(config);
+			computer.fastInit(config);
+			return computer;
+		});
+	}
+
+	/**
+	 * Get a Computer for the slower computational method.
+	 * <p>
+	 * The Computer's lookup tables are not populated.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @return Shared Computer instance.
+	 * @throws IllegalArgumentException If the Computer class could not be instantiated.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Config<U, T>, U extends Computer<T, U>> U getSlow(T config) {
+		Computer<?, ?> computer = slowComputers.get(config.computer);
+		if (computer == null) {
+			computer = slowComputers.computeIfAbsent(config.computer, key -> newInstance(config));
+		}
+		return (U)computer;
+	}
+
+	/**
+	 * Create a new instance of the configuration's Computer class.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param config CRC configuration to use.
+	 * @return New Computer instance.
+	 */
+	private static <T extends Config<U, T>, U extends Computer<T, U>> U newInstance(T config) {
+		try {
+			return config.computer.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Unable to create instance of provided CRC computer class.", e);
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.nio.ByteBuffer;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Slicing table engine which shifts the CRC register left (MSB first).
+ * <p>
+ * The register is held left-aligned in a 64-bit long, so that any CRC width
+ * can be handled with the same shifts.  The engine uses {@link CRCConfig#slices}
+ * lookup tables, and consumes that many bytes per step.  Table {@code k} holds
+ * the remainder of each byte value followed by {@code k} zero bytes, so the
+ * lookups within one step are independent of each other.
+ * 
+ * @author walton
+ */
+final class ForwardEngine extends TableEngine {
+	/**
+	 * Distance from the top of the CRC to the top of the register.
+	 */
+	private final int shift;
+	/**
+	 * Reverse the bits in the input bytes?
+	 */
+	private final boolean reflectInput;
+	/**
+	 * Number of bytes consumed per step.
+	 */
+	private final int slices;
+	/**
+	 * Lookup tables, 256 entries each, stored one after another.
+	 */
+	private final long[] table;
+
+	/**
+	 * Create an engine and populate its tables.
+	 * 
+	 * @param config CRC configuration to use.
+	 */
+	ForwardEngine(CRCConfig config) {
+		this.shift = 64 - config.bits;
+		this.reflectInput = config.reflectInputBits;
+		this.slices = config.slices;
+		this.table = new long[256 * slices];
+		long poly = config.polynomial << shift;
+		// Compute the remainder of each single-bit dividend.
+		for (int dividend=1; dividend<256; dividend<<=1) {
+			long crc = (long)dividend << 56;
+			// Perform modulo-2 division, a bit at a time.
+			for (int bit=8; bit>0; bit--) {
+				crc = (crc < 0) ? (crc << 1) ^ poly : crc << 1;
+			}
+			table[dividend] = crc;
+		}
+		// Division is linear, so every other remainder is the XOR of two
+		// already computed: the lowest set bit and the rest.
+		for (int dividend=3; dividend<256; dividend++) {
+			table[dividend] = table[dividend & -dividend] ^ table[dividend & (dividend - 1)];
+		}
+		// Each further table is the previous one followed by a zero byte.
+		for (int i=256; i<table.length; i++) {
+			long crc = table[i - 256];
+			table[i] = (crc << 8) ^ table[(int)(crc >>> 56)];
+		}
+	}
+
+	/**
+	 * Check whether the bits in the input bytes are reversed.
+	 * 
+	 * @return {@code true} if the input bits are reversed.
+	 */
+	boolean isReflectInput() {
+		return reflectInput;
+	}
+
+	/**
+	 * Get the lookup tables.  The array must not be modified.
+	 * 
+	 * @return Lookup tables, 256 entries each, stored one after another.
+	 */
+	long[] getTable() {
+		return table;
+	}
+
+	@Override
+	long start(CRCConfig config) {
+		return config.initialValue << shift;
+	}
+
+	@Override
+	long finish(CRCConfig config, long register) {
+		long crc = register >>> shift;
+		if (config.reflectOutputBits) {
+			crc = reflect(crc, config.bits);
+		}
+		crc ^= config.finalXORValue;
+		if (config.reflectOutputBytes) {
+			crc = reflectBytes(crc, config.bytes);
+		}
+		return crc & config.mask;
+	}
+
+	@Override
+	long resume(CRCConfig config, long crc) {
+		if (config.reflectOutputBytes) {
+			crc = reflectBytes(crc, config.bytes);
+		}
+		crc ^= config.finalXORValue;
+		if (config.reflectOutputBits) {
+			crc = reflect(crc, config.bits);
+		}
+		return crc << shift;
+	}
+
+	@Override
+	long toPlain(long register) {
+		return register >>> shift;
+	}
+
+	@Override
+	long fromPlain(long plain) {
+		return plain << shift;
+	}
+
+	@Override
+	long update(long register, byte b) {
+		int data = reflectInput ? (Integer.reverse(b) >>> 24) : (b & 0xFF);
+		return (register << 8) ^ table[(int)(register >>> 56) ^ data];
+	}
+
+	@Override
+	long update(long register, byte[] message, int offset, int length) {
+		int end = offset + length;
+		if (slices == 16) {
+			for (; end - offset >= 16; offset += 16) {
+				register = slice16(register ^ word(message, offset), word(message, offset + 8));
+			}
+		} else {
+			for (; end - offset >= 8; offset += 8) {
+				register = slice8(register ^ word(message, offset));
+			}
+		}
+		// Finish any remaining bytes one at a time.
+		for (; offset < end; offset++) {
+			register = update(register, message[offset]);
+		}
+		return register;
+	}
+
+	@Override
+	long update(long register, ByteBuffer buffer, int index, int end) {
+		boolean swap = isBigEndian(buffer);
+		if (slices == 16) {
+			for (; end - index >= 16; index += 16) {
+				register = slice16(register ^ word(buffer, index, swap), word(buffer, index + 8, swap));
+			}
+		} else {
+			for (; end - index >= 8; index += 8) {
+				register = slice8(register ^ word(buffer, index, swap));
+			}
+		}
+		// Finish any remaining bytes one at a time.
+		for (; index < end; index++) {
+			register = update(register, buffer.get(index));
+		}
+		return register;
+	}
+
+	@Override
+	void update4(long[] registers, byte[] m0, int o0, byte[] m1, int o1,
+			byte[] m2, int o2, byte[] m3, int o3, int length) {
+		long r0 = registers[0];
+		long r1 = registers[1];
+		long r2 = registers[2];
+		long r3 = registers[3];
+		int i = 0;
+		for (; length - i >= 8; i += 8) {
+			r0 = slice8(r0 ^ word(m0, o0 + i));
+			r1 = slice8(r1 ^ word(m1, o1 + i));
+			r2 = slice8(r2 ^ word(m2, o2 + i));
+			r3 = slice8(r3 ^ word(m3, o3 + i));
+		}
+		// Finish any remaining bytes one at a time.
+		for (; i < length; i++) {
+			r0 = update(r0, m0[o0 + i]);
+			r1 = update(r1, m1[o1 + i]);
+			r2 = update(r2, m2[o2 + i]);
+			r3 = update(r3, m3[o3 + i]);
+		}
+		registers[0] = r0;
+		registers[1] = r1;
+		registers[2] = r2;
+		registers[3] = r3;
+	}
+
+	/**
+	 * Look up one step of 16 bytes.
+	 * 
+	 * @param a First 8 bytes, combined with the register.
+	 * @param b Last 8 bytes.
+	 * @return Updated internal register value.
+	 */
+	private long slice16(long a, long b) {
+		final long[] t = table;
+		return t[0xF00 | (int)(a >>> 56)]
+				^ t[0xE00 | ((int)(a >>> 48) & 0xFF)]
+				^ t[0xD00 | ((int)(a >>> 40) & 0xFF)]
+				^ t[0xC00 | ((int)(a >>> 32) & 0xFF)]
+				^ t[0xB00 | ((int)(a >>> 24) & 0xFF)]
+				^ t[0xA00 | ((int)(a >>> 16) & 0xFF)]
+				^ t[0x900 | ((int)(a >>> 8) & 0xFF)]
+				^ t[0x800 | ((int)a & 0xFF)]
+				^ t[0x700 | (int)(b >>> 56)]
+				^ t[0x600 | ((int)(b >>> 48) & 0xFF)]
+				^ t[0x500 | ((int)(b >>> 40) & 0xFF)]
+				^ t[0x400 | ((int)(b >>> 32) & 0xFF)]
+				^ t[0x300 | ((int)(b >>> 24) & 0xFF)]
+				^ t[0x200 | ((int)(b >>> 16) & 0xFF)]
+				^ t[0x100 | ((int)(b >>> 8) & 0xFF)]
+				^ t[(int)b & 0xFF];
+	}
+
+	/**
+	 * Look up one step of 8 bytes.
+	 * 
+	 * @param a Next 8 bytes, combined with the register.
+	 * @return Updated internal register value.
+	 */
+	private long slice8(long a) {
+		final long[] t = table;
+		return t[0x700 | (int)(a >>> 56)]
+				^ t[0x600 | ((int)(a >>> 48) & 0xFF)]
+				^ t[0x500 | ((int)(a >>> 40) & 0xFF)]
+				^ t[0x400 | ((int)(a >>> 32) & 0xFF)]
+				^ t[0x300 | ((int)(a >>> 24) & 0xFF)]
+				^ t[0x200 | ((int)(a >>> 16) & 0xFF)]
+				^ t[0x100 | ((int)(a >>> 8) & 0xFF)]
+				^ t[(int)a & 0xFF];
+	}
+
+	/**
+	 * Read the next 8 message bytes, first byte in the most significant position.
+	 * 
+	 * @param message Array holding the message.
+	 * @param index Index of the first byte.
+	 * @return The 8 bytes, with bits reflected if required.
+	 */
+	private long word(byte[] message, int index) {
+		if (reflectInput) {
+			// Reversing a little-endian word reverses the byte order and the bits in each byte.
+			return Long.reverse(ByteArrays.getLongLE(message, index));
+		}
+		return ByteArrays.getLongBE(message, index);
+	}
+
+	/**
+	 * Read the next 8 message bytes, first byte in the most significant position.
+	 * 
+	 * @param buffer Buffer holding the message.
+	 * @param index Index of the first byte.
+	 * @param swap Whether the buffer's byte order is big-endian.
+	 * @return The 8 bytes, with bits reflected if required.
+	 */
+	private long word(ByteBuffer buffer, int index, boolean swap) {
+		long word = getLongLE(buffer, index, swap);
+		return reflectInput ? Long.reverse(word) : Long.reverseBytes(word);
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Polynomial arithmetic over GF(2), modulo a CRC polynomial.
+ * <p>
+ * Values are in the plain CRC register format: unreflected, with the
+ * coefficient of the highest power in the top bit of the CRC.
+ * 
+ * @author walton
+ */
+final class GF2 {
+	private GF2() {}
+
+	/**
+	 * Multiply two polynomials, modulo the CRC polynomial.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param a First polynomial.
+	 * @param b Second polynomial.
+	 * @return The product of the two polynomials.
+	 */
+	static long multiply(CRCConfig config, long a, long b) {
+		long product = 0;
+		for (int bit=config.bits - 1; bit>=0; bit--) {
+			product = timesX(config, product);
+			if (((b >>> bit) & 1) != 0) {
+				product ^= a;
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * Compute x^(8n), modulo the CRC polynomial.
+	 * <p>
+	 * This is the operator for appending {@code n} zero bytes to a message.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param n Number of bytes.
+	 * @return x^(8n) modulo the polynomial.
+	 */
+	static long zeroBytes(CRCConfig config, long n) {
+		// x^8, the operator for one zero byte.
+		long square = 1;
+		for (int bit=0; bit<8; bit++) {
+			square = timesX(config, square);
+		}
+		// Square and multiply, using the bits of n.
+		long result = 1;
+		while (n != 0) {
+			if ((n & 1) != 0) {
+				result = multiply(config, result, square);
+			}
+			n >>>= 1;
+			if (n != 0) {
+				square = multiply(config, square, square);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Advance a register over a number of zero bytes.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Plain register value.
+	 * @param n Number of zero bytes.
+	 * @return The register after processing {@code n} zero bytes.
+	 */
+	static long zeroBytes(CRCConfig config, long register, long n) {
+		return multiply(config, register, zeroBytes(config, n));
+	}
+
+	/**
+	 * Multiply a polynomial by x, modulo the CRC polynomial.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param a Polynomial to multiply.
+	 * @return The product.
+	 */
+	private static long timesX(CRCConfig config, long a) {
+		if (((a >>> (config.bits - 1)) & 1) != 0) {
+			return ((a << 1) & config.mask) ^ config.polynomial;
+		}
+		return a << 1;
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.nio.ByteBuffer;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Slicing table engine which shifts the CRC register right (LSB first).
+ * <p>
+ * Used for configurations which reflect both the input and output bits.
+ * The register is held in reflected form, with tables built from the
+ * reflected polynomial, so no bit reflection is needed while processing
+ * the message, nor when finalizing the CRC.  The engine uses
+ * {@link CRCConfig#slices} lookup tables, and consumes that many bytes per
+ * step.
+ * 
+ * @author walton
+ */
+final class ReflectedEngine extends TableEngine {
+	/**
+	 * Number of bits in the CRC.
+	 */
+	private final int bits;
+	/**
+	 * Number of bytes consumed per step.
+	 */
+	private final int slices;
+	/**
+	 * Lookup tables, 256 entries each, stored one after another.
+	 */
+	private final long[] table;
+
+	/**
+	 * Create an engine and populate its tables.
+	 * 
+	 * @param config CRC configuration to use.
+	 */
+	ReflectedEngine(CRCConfig config) {
+		this.bits = config.bits;
+		this.slices = config.slices;
+		this.table = new long[256 * slices];
+		long poly = reflect(config.polynomial, config.bits);
+		// Compute the remainder of each single-bit dividend.
+		for (int dividend=1; dividend<256; dividend<<=1) {
+			long crc = dividend;
+			// Perform modulo-2 division, a bit at a time.
+			for (int bit=8; bit>0; bit--) {
+				crc = ((crc & 1) != 0) ? (crc >>> 1) ^ poly : crc >>> 1;
+			}
+			table[dividend] = crc;
+		}
+		// Division is linear, so every other remainder is the XOR of two
+		// already computed: the lowest set bit and the rest.
+		for (int dividend=3; dividend<256; dividend++) {
+			table[dividend] = table[dividend & -dividend] ^ table[dividend & (dividend - 1)];
+		}
+		// Each further table is the previous one followed by a zero byte.
+		for (int i=256; i<table.length; i++) {
+			long crc = table[i - 256];
+			table[i] = (crc >>> 8) ^ table[(int)crc & 0xFF];
+		}
+	}
+
+	/**
+	 * Get the lookup tables.  The array must not be modified.
+	 * 
+	 * @return Lookup tables, 256 entries each, stored one after another.
+	 */
+	long[] getTable() {
+		return table;
+	}
+
+	@Override
+	long start(CRCConfig config) {
+		return reflect(config.initialValue, config.bits);
+	}
+
+	@Override
+	long finish(CRCConfig config, long register) {
+		long crc = register ^ config.finalXORValue;
+		if (config.reflectOutputBytes) {
+			crc = reflectBytes(crc, config.bytes);
+		}
+		return crc & config.mask;
+	}
+
+	@Override
+	long resume(CRCConfig config, long crc) {
+		if (config.reflectOutputBytes) {
+			crc = reflectBytes(crc, config.bytes);
+		}
+		return (crc ^ config.finalXORValue) & config.mask;
+	}
+
+	@Override
+	long toPlain(long register) {
+		return reflect(register, bits);
+	}
+
+	@Override
+	long fromPlain(long plain) {
+		return reflect(plain, bits);
+	}
+
+	@Override
+	long update(long register, byte b) {
+		return (register >>> 8) ^ table[((int)register ^ b) & 0xFF];
+	}
+
+	@Override
+	long update(long register, byte[] message, int offset, int length) {
+		int end = offset + length;
+		if (slices == 16) {
+			for (; end - offset >= 16; offset += 16) {
+				register = slice16(register ^ ByteArrays.getLongLE(message, offset), ByteArrays.getLongLE(message, offset + 8));
+			}
+		} else {
+			for (; end - offset >= 8; offset += 8) {
+				register = slice8(register ^ ByteArrays.getLongLE(message, offset));
+			}
+		}
+		// Finish any remaining bytes one at a time.
+		for (; offset < end; offset++) {
+			register = (register >>> 8) ^ table[((int)register ^ message[offset]) & 0xFF];
+		}
+		return register;
+	}
+
+	@Override
+	long update(long register, ByteBuffer buffer, int index, int end) {
+		boolean swap = isBigEndian(buffer);
+		if (slices == 16) {
+			for (; end - index >= 16; index += 16) {
+				register = slice16(register ^ getLongLE(buffer, index, swap), getLongLE(buffer, index + 8, swap));
+			}
+		} else {
+			for (; end - index >= 8; index += 8) {
+				register = slice8(register ^ getLongLE(buffer, index, swap));
+			}
+		}
+		// Finish any remaining bytes one at a time.
+		for (; index < end; index++) {
+			register = (register >>> 8) ^ table[((int)register ^ buffer.get(index)) & 0xFF];
+		}
+		return register;
+	}
+
+	@Override
+	void update4(long[] registers, byte[] m0, int o0, byte[] m1, int o1,
+			byte[] m2, int o2, byte[] m3, int o3, int length) {
+		long r0 = registers[0];
+		long r1 = registers[1];
+		long r2 = registers[2];
+		long r3 = registers[3];
+		int i = 0;
+		for (; length - i >= 8; i += 8) {
+			r0 = slice8(r0 ^ ByteArrays.getLongLE(m0, o0 + i));
+			r1 = slice8(r1 ^ ByteArrays.getLongLE(m1, o1 + i));
+			r2 = slice8(r2 ^ ByteArrays.getLongLE(m2, o2 + i));
+			r3 = slice8(r3 ^ ByteArrays.getLongLE(m3, o3 + i));
+		}
+		// Finish any remaining bytes one at a time.
+		final long[] t = table;
+		for (; i < length; i++) {
+			r0 = (r0 >>> 8) ^ t[((int)r0 ^ m0[o0 + i]) & 0xFF];
+			r1 = (r1 >>> 8) ^ t[((int)r1 ^ m1[o1 + i]) & 0xFF];
+			r2 = (r2 >>> 8) ^ t[((int)r2 ^ m2[o2 + i]) & 0xFF];
+			r3 = (r3 >>> 8) ^ t[((int)r3 ^ m3[o3 + i]) & 0xFF];
+		}
+		registers[0] = r0;
+		registers[1] = r1;
+		registers[2] = r2;
+		registers[3] = r3;
+	}
+
+	/**
+	 * Look up one step of 16 bytes.
+	 * 
+	 * @param a First 8 bytes, combined with the register.
+	 * @param b Last 8 bytes.
+	 * @return Updated internal register value.
+	 */
+	private long slice16(long a, long b) {
+		final long[] t = table;
+		return t[0xF00 | ((int)a & 0xFF)]
+				^ t[0xE00 | ((int)(a >>> 8) & 0xFF)]
+				^ t[0xD00 | ((int)(a >>> 16) & 0xFF)]
+				^ t[0xC00 | ((int)(a >>> 24) & 0xFF)]
+				^ t[0xB00 | ((int)(a >>> 32) & 0xFF)]
+				^ t[0xA00 | ((int)(a >>> 40) & 0xFF)]
+				^ t[0x900 | ((int)(a >>> 48) & 0xFF)]
+				^ t[0x800 | (int)(a >>> 56)]
+				^ t[0x700 | ((int)b & 0xFF)]
+				^ t[0x600 | ((int)(b >>> 8) & 0xFF)]
+				^ t[0x500 | ((int)(b >>> 16) & 0xFF)]
+				^ t[0x400 | ((int)(b >>> 24) & 0xFF)]
+				^ t[0x300 | ((int)(b >>> 32) & 0xFF)]
+				^ t[0x200 | ((int)(b >>> 40) & 0xFF)]
+				^ t[0x100 | ((int)(b >>> 48) & 0xFF)]
+				^ t[(int)(b >>> 56)];
+	}
+
+	/**
+	 * Look up one step of 8 bytes.
+	 * 
+	 * @param a Next 8 bytes, combined with the register.
+	 * @return Updated internal register value.
+	 */
+	private long slice8(long a) {
+		final long[] t = table;
+		return t[0x700 | ((int)a & 0xFF)]
+				^ t[0x600 | ((int)(a >>> 8) & 0xFF)]
+				^ t[0x500 | ((int)(a >>> 16) & 0xFF)]
+				^ t[0x400 | ((int)(a >>> 24) & 0xFF)]
+				^ t[0x300 | ((int)(a >>> 32) & 0xFF)]
+				^ t[0x200 | ((int)(a >>> 40) & 0xFF)]
+				^ t[0x100 | ((int)(a >>> 48) & 0xFF)]
+				^ t[(int)(a >>> 56)];
+	}
+}
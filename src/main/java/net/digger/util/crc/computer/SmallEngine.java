@@ -0,0 +1,204 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.nio.ByteBuffer;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Compact table engine for CRCs of 8 bits or fewer.
+ * <p>
+ * The whole register fits within one byte, so each message byte is consumed
+ * by a single lookup in a {@code byte[256]} table, or by two lookups in a
+ * 16-entry nibble table when {@link CRCConfig#nibbleTables} is set.  Either
+ * way the tables are small enough for many configurations to stay in the
+ * L1 cache together.
+ * <p>
+ * For configurations which reflect both the input and output bits the
+ * register is held in reflected form, right-aligned, and shifted right.
+ * Otherwise it is held left-aligned within the byte and shifted left.
+ * 
+ * @author walton
+ */
+final class SmallEngine extends TableEngine {
+	/**
+	 * Number of bits in the CRC.
+	 */
+	private final int bits;
+	/**
+	 * Distance from the top of the CRC to the top of the byte, or 0 when reflected.
+	 */
+	private final int shift;
+	/**
+	 * Does the register shift right (LSB first)?
+	 */
+	private final boolean reflected;
+	/**
+	 * Reverse the bits in the input bytes before use?
+	 */
+	private final boolean reflectInput;
+	/**
+	 * Lookup table, 256 byte entries, or {@code null} if using nibble tables.
+	 */
+	private final byte[] table;
+	/**
+	 * Lookup table, 16 nibble entries, or {@code null} if using byte tables.
+	 */
+	private final byte[] nibbles;
+
+	/**
+	 * Create an engine and populate its table.
+	 * 
+	 * @param config CRC configuration to use.
+	 */
+	SmallEngine(CRCConfig config) {
+		this.bits = config.bits;
+		this.reflected = config.reflectInputBits && config.reflectOutputBits;
+		this.shift = reflected ? 0 : 8 - config.bits;
+		this.reflectInput = config.reflectInputBits && !reflected;
+		int entries = config.nibbleTables ? 16 : 256;
+		int steps = config.nibbleTables ? 4 : 8;
+		byte[] t = new byte[entries];
+		if (reflected) {
+			int poly = (int)reflect(config.polynomial, config.bits);
+			// Compute the remainder of each possible dividend.
+			for (int dividend=0; dividend<entries; dividend++) {
+				int crc = dividend;
+				// Perform modulo-2 division, a bit at a time.
+				for (int bit=steps; bit>0; bit--) {
+					crc = ((crc & 1) != 0) ? (crc >>> 1) ^ poly : crc >>> 1;
+				}
+				t[dividend] = (byte)crc;
+			}
+		} else {
+			int poly = (int)config.polynomial << shift;
+			// Compute the remainder of each possible dividend.
+			for (int dividend=0; dividend<entries; dividend++) {
+				int crc = dividend << (8 - steps);
+				// Perform modulo-2 division, a bit at a time.
+				for (int bit=steps; bit>0; bit--) {
+					crc = ((crc & 0x80) != 0) ? (crc << 1) ^ poly : crc << 1;
+				}
+				t[dividend] = (byte)crc;
+			}
+		}
+		this.table = config.nibbleTables ? null : t;
+		this.nibbles = config.nibbleTables ? t : null;
+	}
+
+	@Override
+	long start(CRCConfig config) {
+		if (reflected) {
+			return reflect(config.initialValue, config.bits);
+		}
+		return (config.initialValue & config.mask) << shift;
+	}
+
+	@Override
+	long finish(CRCConfig config, long register) {
+		long crc = register >>> shift;
+		if (config.reflectOutputBits && !reflected) {
+			crc = reflect(crc, config.bits);
+		}
+		return (crc ^ config.finalXORValue) & config.mask;
+	}
+
+	@Override
+	long resume(CRCConfig config, long crc) {
+		crc = (crc ^ config.finalXORValue) & config.mask;
+		if (config.reflectOutputBits && !reflected) {
+			crc = reflect(crc, config.bits);
+		}
+		return crc << shift;
+	}
+
+	@Override
+	long toPlain(long register) {
+		return reflected ? reflect(register, bits) : register >>> shift;
+	}
+
+	@Override
+	long fromPlain(long plain) {
+		return reflected ? reflect(plain, bits) : plain << shift;
+	}
+
+	@Override
+	long update(long register, byte b) {
+		return step((int)register, b);
+	}
+
+	@Override
+	long update(long register, byte[] message, int offset, int length) {
+		int crc = (int)register;
+		int end = offset + length;
+		for (; offset < end; offset++) {
+			crc = step(crc, message[offset]);
+		}
+		return crc;
+	}
+
+	@Override
+	long update(long register, ByteBuffer buffer, int index, int end) {
+		int crc = (int)register;
+		for (; index < end; index++) {
+			crc = step(crc, buffer.get(index));
+		}
+		return crc;
+	}
+
+	@Override
+	void update4(long[] registers, byte[] m0, int o0, byte[] m1, int o1,
+			byte[] m2, int o2, byte[] m3, int o3, int length) {
+		int r0 = (int)registers[0];
+		int r1 = (int)registers[1];
+		int r2 = (int)registers[2];
+		int r3 = (int)registers[3];
+		for (int i=0; i<length; i++) {
+			r0 = step(r0, m0[o0 + i]);
+			r1 = step(r1, m1[o1 + i]);
+			r2 = step(r2, m2[o2 + i]);
+			r3 = step(r3, m3[o3 + i]);
+		}
+		registers[0] = r0;
+		registers[1] = r1;
+		registers[2] = r2;
+		registers[3] = r3;
+	}
+
+	/**
+	 * Consume one message byte.
+	 * 
+	 * @param crc Internal register value.
+	 * @param b Next byte of the message.
+	 * @return Updated internal register value.
+	 */
+	private int step(int crc, byte b) {
+		int data = reflectInput ? (Integer.reverse(b) >>> 24) : (b & 0xFF);
+		crc ^= data;
+		if (table != null) {
+			return table[crc] & 0xFF;
+		}
+		final byte[] t = nibbles;
+		if (reflected) {
+			crc = (crc >>> 4) ^ (t[crc & 0x0F] & 0xFF);
+			return (crc >>> 4) ^ (t[crc & 0x0F] & 0xFF);
+		}
+		crc = ((crc << 4) & 0xFF) ^ (t[crc >>> 4] & 0xFF);
+		return ((crc << 4) & 0xFF) ^ (t[crc >>> 4] & 0xFF);
+	}
+}
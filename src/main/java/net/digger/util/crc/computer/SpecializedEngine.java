@@ -0,0 +1,184 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.nio.ByteBuffer;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Template for the engine classes created by {@link Specializer}.
+ * <p>
+ * This class is never loaded as an ordinary class.  Each hidden class defined
+ * from its bytes reads the parameters of a {@link ForwardEngine} or
+ * {@link ReflectedEngine} into static final fields when it is initialized, so
+ * the JIT can fold them into its own copy of the message loop.  The less
+ * frequent operations are passed on to the original engine.
+ * 
+ * @author walton
+ */
+final class SpecializedEngine extends TableEngine {
+	/**
+	 * Shared engine with the same tables.
+	 */
+	private static final TableEngine BASE = Specializer.pending();
+	/**
+	 * Is the register shifted right, as in {@link ReflectedEngine}?
+	 */
+	private static final boolean REFLECTED = BASE instanceof ReflectedEngine;
+	/**
+	 * Reverse the bits in the input bytes, for a {@link ForwardEngine}?
+	 */
+	private static final boolean REFLECT_INPUT = !REFLECTED && ((ForwardEngine)BASE).isReflectInput();
+	/**
+	 * Lookup tables, 256 entries each, stored one after another.
+	 */
+	private static final long[] TABLE = REFLECTED ? ((ReflectedEngine)BASE).getTable() : ((ForwardEngine)BASE).getTable();
+	/**
+	 * Consume 16 bytes per step, rather than 8?
+	 */
+	private static final boolean SLICE16 = TABLE.length == 256 * 16;
+
+	@Override
+	long start(CRCConfig config) {
+		return BASE.start(config);
+	}
+
+	@Override
+	long finish(CRCConfig config, long register) {
+		return BASE.finish(config, register);
+	}
+
+	@Override
+	long resume(CRCConfig config, long crc) {
+		return BASE.resume(config, crc);
+	}
+
+	@Override
+	long toPlain(long register) {
+		return BASE.toPlain(register);
+	}
+
+	@Override
+	long fromPlain(long plain) {
+		return BASE.fromPlain(plain);
+	}
+
+	@Override
+	long update(long register, byte b) {
+		if (REFLECTED) {
+			return (register >>> 8) ^ TABLE[((int)register ^ b) & 0xFF];
+		}
+		int data = REFLECT_INPUT ? (Integer.reverse(b) >>> 24) : (b & 0xFF);
+		return (register << 8) ^ TABLE[(int)(register >>> 56) ^ data];
+	}
+
+	@Override
+	long update(long register, byte[] message, int offset, int length) {
+		int end = offset + length;
+		if (SLICE16) {
+			for (; end - offset >= 16; offset += 16) {
+				register = slice16(register ^ word(message, offset), word(message, offset + 8));
+			}
+		} else {
+			for (; end - offset >= 8; offset += 8) {
+				register = slice8(register ^ word(message, offset));
+			}
+		}
+		// Finish any remaining bytes one at a time.
+		for (; offset < end; offset++) {
+			register = update(register, message[offset]);
+		}
+		return register;
+	}
+
+	@Override
+	long update(long register, ByteBuffer buffer, int index, int end) {
+		return BASE.update(register, buffer, index, end);
+	}
+
+	@Override
+	void update4(long[] registers, byte[] m0, int o0, byte[] m1, int o1,
+			byte[] m2, int o2, byte[] m3, int o3, int length) {
+		BASE.update4(registers, m0, o0, m1, o1, m2, o2, m3, o3, length);
+	}
+
+	/**
+	 * Look up one step of 16 bytes.
+	 * 
+	 * @param a First 8 bytes, combined with the register.
+	 * @param b Last 8 bytes.
+	 * @return Updated internal register value.
+	 */
+	private static long slice16(long a, long b) {
+		return slice8(a, 0x800) ^ slice8(b, 0);
+	}
+
+	/**
+	 * Look up one step of 8 bytes.
+	 * 
+	 * @param a Next 8 bytes, combined with the register.
+	 * @return Updated internal register value.
+	 */
+	private static long slice8(long a) {
+		return slice8(a, 0);
+	}
+
+	/**
+	 * Look up 8 bytes in a group of 8 tables.
+	 * <p>
+	 * The bytes are in message order: lowest first if {@link #REFLECTED},
+	 * and highest first otherwise.
+	 * 
+	 * @param a 8 bytes to look up.
+	 * @param base Index of the first table in the group.
+	 * @return Combined remainders of the bytes.
+	 */
+	private static long slice8(long a, int base) {
+		final long[] t = TABLE;
+		if (REFLECTED) {
+			a = Long.reverseBytes(a);
+		}
+		return t[base | 0x700 | (int)(a >>> 56)]
+				^ t[base | 0x600 | ((int)(a >>> 48) & 0xFF)]
+				^ t[base | 0x500 | ((int)(a >>> 40) & 0xFF)]
+				^ t[base | 0x400 | ((int)(a >>> 32) & 0xFF)]
+				^ t[base | 0x300 | ((int)(a >>> 24) & 0xFF)]
+				^ t[base | 0x200 | ((int)(a >>> 16) & 0xFF)]
+				^ t[base | 0x100 | ((int)(a >>> 8) & 0xFF)]
+				^ t[base | ((int)a & 0xFF)];
+	}
+
+	/**
+	 * Read the next 8 message bytes, in the order the register consumes them.
+	 * 
+	 * @param message Array holding the message.
+	 * @param index Index of the first byte.
+	 * @return The 8 bytes, first byte in the least significant position if
+	 * 		{@link #REFLECTED}, and in the most significant position otherwise.
+	 */
+	private static long word(byte[] message, int index) {
+		if (REFLECTED) {
+			return ByteArrays.getLongLE(message, index);
+		}
+		if (REFLECT_INPUT) {
+			// Reversing a little-endian word reverses the byte order and the bits in each byte.
+			return Long.reverse(ByteArrays.getLongLE(message, index));
+		}
+		return ByteArrays.getLongBE(message, index);
+	}
+}
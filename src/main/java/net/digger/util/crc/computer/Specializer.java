@@ -0,0 +1,156 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Creates a separate engine class for each set of table parameters.
+ * <p>
+ * The table engines are shared by every configuration, so when many
+ * configurations are in use, the JIT compiles one loop for all of them, with
+ * the shift, reflection and table loaded from fields on every step.  Each
+ * specialized engine is a new hidden class, defined from the bytes of
+ * {@link SpecializedEngine}, which holds these as static final fields.  The
+ * JIT treats them as constants, and compiles and profiles each class's loop
+ * on its own.
+ * <p>
+ * Hidden classes need Java 15 or later, and are looked up reflectively since
+ * the sources target Java 8.  On older JVMs the shared engines are used.
+ * Set the system property {@code net.digger.util.crc.specialize} to
+ * {@code true} to enable this.
+ * 
+ * @author walton
+ */
+final class Specializer {
+	/**
+	 * Whether to create a separate engine class for each set of table parameters.
+	 */
+	static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("net.digger.util.crc.specialize", "false"));
+	/**
+	 * Bytes of the {@link SpecializedEngine} class file, or {@code null} if
+	 * hidden classes are not available.
+	 */
+	private static final byte[] TEMPLATE;
+	/**
+	 * {@code Lookup.defineHiddenClass(byte[], boolean, ClassOption...)}, or
+	 * {@code null} if hidden classes are not available.
+	 */
+	private static final Method DEFINE_HIDDEN_CLASS;
+	/**
+	 * Empty array of {@code Lookup.ClassOption}.
+	 */
+	private static final Object NO_OPTIONS;
+	/**
+	 * Engine whose parameters are read by the next specialized class to be
+	 * initialized.  Guarded by the class lock.
+	 */
+	private static TableEngine pending;
+
+	static {
+		byte[] template = null;
+		Method define = null;
+		Object options = null;
+		if (ENABLED) {
+			try {
+				Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+				options = Array.newInstance(option, 0);
+				define = Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, options.getClass());
+				template = readTemplate();
+			} catch (ReflectiveOperationException | IOException e) {
+				define = null;
+			}
+		}
+		TEMPLATE = (define != null) ? template : null;
+		DEFINE_HIDDEN_CLASS = define;
+		NO_OPTIONS = options;
+	}
+
+	private Specializer() {}
+
+	/**
+	 * Create an engine of its own class, with the same tables as the given engine.
+	 * 
+	 * @param engine Shared engine to specialize.
+	 * @return A specialized engine, or the given engine if it can't be specialized.
+	 */
+	static synchronized TableEngine specialize(TableEngine engine) {
+		if ((TEMPLATE == null) || !((engine instanceof ForwardEngine) || (engine instanceof ReflectedEngine))) {
+			return engine;
+		}
+		pending = engine;
+		try {
+			Lookup lookup = (Lookup)DEFINE_HIDDEN_CLASS.invoke(MethodHandles.lookup(), TEMPLATE, true, NO_OPTIONS);
+			Constructor<?> constructor = lookup.lookupClass().getDeclaredConstructor();
+			return (TableEngine)constructor.newInstance();
+		} catch (InvocationTargetException e) {
+			// The JVM refused to define the class, or the constructor failed.
+			Throwable cause = e.getCause();
+			if ((cause instanceof IllegalAccessException) || (cause instanceof LinkageError)) {
+				return engine;
+			}
+			throw new IllegalStateException("Unable to create specialized engine.", cause);
+		} catch (ExceptionInInitializerError e) {
+			throw e;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return engine;
+		} finally {
+			pending = null;
+		}
+	}
+
+	/**
+	 * Get the engine to read parameters from, while a specialized class is
+	 * being initialized.
+	 * 
+	 * @return Shared engine being specialized.
+	 */
+	static TableEngine pending() {
+		return pending;
+	}
+
+	/**
+	 * Read the bytes of the {@link SpecializedEngine} class file.
+	 * <p>
+	 * The class is only named here, so that it is never loaded as an
+	 * ordinary class.
+	 * 
+	 * @return Class file bytes.
+	 * @throws IOException If the class file could not be read.
+	 */
+	private static byte[] readTemplate() throws IOException {
+		try (InputStream in = Specializer.class.getResourceAsStream("SpecializedEngine.class")) {
+			if (in == null) {
+				throw new IOException("SpecializedEngine.class not found.");
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int count; (count = in.read(buffer)) >= 0; ) {
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+	}
+}
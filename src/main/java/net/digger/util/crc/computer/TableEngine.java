@@ -0,0 +1,228 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Base class for the lookup table engines used by the faster table-driven method.
+ * <p>
+ * An engine keeps the CRC in its own internal register format, which is
+ * converted to and from the plain CRC value only at the start and end of a
+ * calculation.
+ * 
+ * @author walton
+ */
+abstract class TableEngine {
+	/**
+	 * Create the table engine appropriate for the given configuration.
+	 * <p>
+	 * If {@link Specializer} is enabled, wide CRCs get an engine class of
+	 * their own.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return A new table engine, with its tables populated.
+	 */
+	static TableEngine create(CRCConfig config) {
+		if (config.bits <= 8) {
+			return new SmallEngine(config);
+		}
+		TableEngine engine;
+		if (config.reflectInputBits && config.reflectOutputBits) {
+			engine = new ReflectedEngine(config);
+		} else {
+			engine = new ForwardEngine(config);
+		}
+		if (Specializer.ENABLED) {
+			engine = Specializer.specialize(engine);
+		}
+		return engine;
+	}
+
+	/**
+	 * Get the internal register value to start a calculation with.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return Internal register value.
+	 */
+	abstract long start(CRCConfig config);
+
+	/**
+	 * Perform the final steps of the CRC calculation.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param register Internal register value.
+	 * @return Final value of the CRC.
+	 */
+	abstract long finish(CRCConfig config, long register);
+
+	/**
+	 * Undo the final steps of the CRC calculation, for incremental update.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @param crc Previous final value of the CRC.
+	 * @return Internal register value.
+	 */
+	abstract long resume(CRCConfig config, long crc);
+
+	/**
+	 * Convert the internal register format into the plain CRC register format
+	 * used by {@link GF2}.
+	 * 
+	 * @param register Internal register value.
+	 * @return Plain register value.
+	 */
+	abstract long toPlain(long register);
+
+	/**
+	 * Convert the plain CRC register format used by {@link GF2} into the
+	 * internal register format.
+	 * 
+	 * @param plain Plain register value.
+	 * @return Internal register value.
+	 */
+	abstract long fromPlain(long plain);
+
+	/**
+	 * Update the register with a single byte.
+	 * 
+	 * @param register Internal register value.
+	 * @param b Next byte of the message to calculate CRC for.
+	 * @return Updated internal register value.
+	 */
+	abstract long update(long register, byte b);
+
+	/**
+	 * Update the register with a range of bytes.
+	 * 
+	 * @param register Internal register value.
+	 * @param message Array holding the message to calculate CRC for.
+	 * @param offset Index of the first byte to process.
+	 * @param length Number of bytes to process.
+	 * @return Updated internal register value.
+	 */
+	abstract long update(long register, byte[] message, int offset, int length);
+
+	/**
+	 * Update the register with a range of bytes from a buffer which
+	 * is not backed by an accessible array.
+	 * 
+	 * @param register Internal register value.
+	 * @param buffer Buffer holding the message to calculate CRC for.
+	 * @param index Index of the first byte to process.
+	 * @param end Index after the last byte to process.
+	 * @return Updated internal register value.
+	 */
+	abstract long update(long register, ByteBuffer buffer, int index, int end);
+
+	/**
+	 * Update four registers with a range of bytes each, all of the same length.
+	 * <p>
+	 * The registers are independent, so their table lookups are interleaved
+	 * to let the processor overlap them.
+	 * 
+	 * @param registers The four internal register values, which are updated in place.
+	 * @param m0 Array holding the bytes for the first register.
+	 * @param o0 Index of the first byte for the first register.
+	 * @param m1 Array holding the bytes for the second register.
+	 * @param o1 Index of the first byte for the second register.
+	 * @param m2 Array holding the bytes for the third register.
+	 * @param o2 Index of the first byte for the third register.
+	 * @param m3 Array holding the bytes for the fourth register.
+	 * @param o3 Index of the first byte for the fourth register.
+	 * @param length Number of bytes to process for each register.
+	 */
+	abstract void update4(long[] registers, byte[] m0, int o0, byte[] m1, int o1,
+			byte[] m2, int o2, byte[] m3, int o3, int length);
+
+	/**
+	 * Update the register with the remaining bytes of a buffer.
+	 * <p>
+	 * Heap buffers are read through their backing array, and other buffers
+	 * a word at a time.  The buffer's position is advanced to its limit.
+	 * 
+	 * @param register Internal register value.
+	 * @param buffer Buffer holding the message to calculate CRC for.
+	 * @return Updated internal register value.
+	 */
+	long update(long register, ByteBuffer buffer) {
+		int position = buffer.position();
+		int limit = buffer.limit();
+		if (buffer.hasArray()) {
+			register = update(register, buffer.array(), buffer.arrayOffset() + position, limit - position);
+		} else {
+			register = update(register, buffer, position, limit);
+		}
+		buffer.position(limit);
+		return register;
+	}
+
+	/**
+	 * Reorder the low {@code nBits} bits of a value, by reflecting
+	 * them about the middle position.
+	 * 
+	 * @param data Value to reflect bits in.
+	 * @param nBits Number of bits to reflect (1 to 64).
+	 * @return The reflection of the original data.
+	 */
+	static long reflect(long data, int nBits) {
+		return Long.reverse(data) >>> (64 - nBits);
+	}
+
+	/**
+	 * Reorder the low {@code nBytes} bytes of a value, by reflecting
+	 * them about the middle position.
+	 * 
+	 * @param data Value to reflect bytes in.
+	 * @param nBytes Number of bytes to reflect (0 to 8).
+	 * @return The reflection of the original data.
+	 */
+	static long reflectBytes(long data, int nBytes) {
+		if (nBytes == 0) {
+			return 0;
+		}
+		return Long.reverseBytes(data) >>> (64 - (nBytes * 8));
+	}
+
+	/**
+	 * Read 8 bytes from a buffer as a little-endian long, regardless of the
+	 * buffer's byte order.
+	 * 
+	 * @param buffer Buffer to read from.
+	 * @param index Index of the first byte.
+	 * @param swap Whether the buffer's byte order is big-endian.
+	 * @return The 8 bytes, first byte in the least significant position.
+	 */
+	static long getLongLE(ByteBuffer buffer, int index, boolean swap) {
+		long word = buffer.getLong(index);
+		return swap ? Long.reverseBytes(word) : word;
+	}
+
+	/**
+	 * Check whether a buffer's byte order is big-endian.
+	 * 
+	 * @param buffer Buffer to check.
+	 * @return {@code true} if words read from the buffer need their bytes swapped
+	 * 		to be little-endian.
+	 */
+	static boolean isBigEndian(ByteBuffer buffer) {
+		return buffer.order() == ByteOrder.BIG_ENDIAN;
+	}
+}
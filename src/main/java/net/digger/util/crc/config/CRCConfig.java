@@ -16,6 +16,9 @@
  */
 package net.digger.util.crc.config;
 
+import java.util.Arrays;
+import java.util.List;
+
 import net.digger.util.crc.computer.CRCComputer;
 
 /**
@@ -46,9 +49,23 @@ public class CRCConfig extends Config<CRCComputer, CRCConfig> {
 	 * Highest bit in the final CRC.
 	 */
 	public final long topBit;
+	/**
+	 * Number of lookup tables used by the table-driven method (8 or 16).
+	 * <p>
+	 * The table-driven method consumes this many message bytes per step.
+	 */
+	public final int slices;
+	/**
+	 * Use 16-entry nibble lookup tables instead of 256-entry byte tables?
+	 * <p>
+	 * Only applies to CRCs of 8 bits or fewer, which otherwise use a single
+	 * 256-entry byte table.  Nibble tables take two lookups per byte, but
+	 * occupy only 16 bytes.
+	 */
+	public final boolean nibbleTables;
 	
 	/**
-	 * Create a new CRC configuration.
+	 * Create a new CRC configuration, using 8 lookup tables.
 	 * 
 	 * @param name Name of this CRC configuration.
 	 * @param bits Number of bits in final output.
@@ -62,12 +79,65 @@ public class CRCConfig extends Config<CRCComputer, CRCConfig> {
 	public CRCConfig(String name, int bits,
 			long polynomial, long initialValue, long finalXORValue,
 			boolean reflectInputBits, boolean reflectOutputBits, boolean reflectOutputBytes) {
+		this(name, bits, polynomial, initialValue, finalXORValue,
+				reflectInputBits, reflectOutputBits, reflectOutputBytes, 8);
+	}
+
+	/**
+	 * Create a new CRC configuration.
+	 * 
+	 * @param name Name of this CRC configuration.
+	 * @param bits Number of bits in final output.
+	 * @param polynomial Polynomial for this CRC.
+	 * @param initialValue Initial value for this CRC configuration.
+	 * @param finalXORValue XOR value to apply to the final CRC.
+	 * @param reflectInputBits Reverse the bits in the input bytes?
+	 * @param reflectOutputBits Reverse the bits in the output bytes?
+	 * @param reflectOutputBytes Reverse the output bytes?
+	 * @param slices Number of lookup tables used by the table-driven method (8 or 16).
+	 */
+	public CRCConfig(String name, int bits,
+			long polynomial, long initialValue, long finalXORValue,
+			boolean reflectInputBits, boolean reflectOutputBits, boolean reflectOutputBytes,
+			int slices) {
+		this(name, bits, polynomial, initialValue, finalXORValue,
+				reflectInputBits, reflectOutputBits, reflectOutputBytes, slices, false);
+	}
+
+	/**
+	 * Create a new CRC configuration.
+	 * 
+	 * @param name Name of this CRC configuration.
+	 * @param bits Number of bits in final output.
+	 * @param polynomial Polynomial for this CRC.
+	 * @param initialValue Initial value for this CRC configuration.
+	 * @param finalXORValue XOR value to apply to the final CRC.
+	 * @param reflectInputBits Reverse the bits in the input bytes?
+	 * @param reflectOutputBits Reverse the bits in the output bytes?
+	 * @param reflectOutputBytes Reverse the output bytes?
+	 * @param slices Number of lookup tables used by the table-driven method (8 or 16).
+	 * @param nibbleTables Use 16-entry nibble lookup tables for CRCs of 8 bits or fewer?
+	 */
+	public CRCConfig(String name, int bits,
+			long polynomial, long initialValue, long finalXORValue,
+			boolean reflectInputBits, boolean reflectOutputBits, boolean reflectOutputBytes,
+			int slices, boolean nibbleTables) {
 		super(CRCComputer.class, name, bits, initialValue);
 		this.polynomial = polynomial;
 		this.finalXORValue = finalXORValue;
 		this.reflectInputBits = reflectInputBits;
 		this.reflectOutputBits = reflectOutputBits;
 		this.reflectOutputBytes = reflectOutputBytes;
-		this.topBit = 1 << (bits - 1);
+		this.topBit = 1L << (bits - 1);
+		if ((slices != 8) && (slices != 16)) {
+			throw new IllegalArgumentException("Number of slices must be 8 or 16.");
+		}
+		this.slices = slices;
+		this.nibbleTables = nibbleTables;
+	}
+
+	@Override
+	public List<Object> getTableKey() {
+		return Arrays.<Object>asList(computer, bits, polynomial, reflectInputBits, reflectOutputBits, slices, nibbleTables);
 	}
 }
@@ -16,6 +16,9 @@
  */
 package net.digger.util.crc.config;
 
+import java.util.Arrays;
+import java.util.List;
+
 import net.digger.util.crc.computer.Computer;
 
 /**
@@ -52,15 +55,29 @@ public abstract class Config<U extends Computer<T, U>, T extends Config<U, T>> {
 	 * 
 	 * @param computer Class of Computer to use.
 	 * @param name Name of this configuration.
-	 * @param bits Number of bits in final output.
+	 * @param bits Number of bits in final output (1 to 64).
 	 * @param initialValue Initial value for this configuration.
 	 */
 	protected Config (Class<U> computer, String name, int bits, long initialValue) {
+		if ((bits < 1) || (bits > 64)) {
+			throw new IllegalArgumentException("Number of bits must be from 1 to 64.");
+		}
 		this.computer = computer;
 		this.name = name;
 		this.bits = bits;
 		this.bytes = bits / 8;
-		this.mask = (long)Math.pow(2, bits) - 1;
+		this.mask = -1L >>> (64 - bits);
 		this.initialValue = initialValue;
 	}
+
+	/**
+	 * Get the parameters which determine the contents of the Computer's lookup tables.
+	 * <p>
+	 * Configurations with equal keys share one Computer instance, and one set of tables.
+	 * 
+	 * @return List of parameters, suitable for use as a map key.
+	 */
+	public List<Object> getTableKey() {
+		return Arrays.<Object>asList(computer);
+	}
 }
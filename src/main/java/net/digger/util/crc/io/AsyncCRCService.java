@@ -0,0 +1,311 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import net.digger.util.crc.CRC;
+import net.digger.util.crc.CRCDigest;
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Calculates the checksums or CRCs of many files concurrently, reading them
+ * with {@link AsynchronousFileChannel}.
+ * <p>
+ * Each file is handled by one task on the service's executor, which keeps
+ * several reads of the file in flight and hashes the completed chunks in
+ * order.  Reads are made into direct buffers taken from a pool shared by
+ * all files, so the pool size bounds both the memory used and the total
+ * number of reads in flight.  A task waits for a buffer only when it has
+ * none in flight, so files can't starve each other of buffers.
+ * <p>
+ * Tasks block while waiting for their reads, which is cheap when the
+ * executor runs each task on a virtual thread.  {@link #newDefaultExecutor()}
+ * does this on Java 21 or later.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+public class AsyncCRCService<T extends Config<U, T>, U extends Computer<T, U>> implements AutoCloseable {
+	/**
+	 * Default size of each pooled buffer.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+	/**
+	 * Default number of pooled buffers.
+	 */
+	public static final int DEFAULT_BUFFERS = 64;
+	/**
+	 * Default number of reads kept in flight for each file.
+	 */
+	public static final int DEFAULT_READ_AHEAD = 4;
+
+	private final CRC<T, U> crc;
+	private final Executor executor;
+	private final boolean ownExecutor;
+	private final int bufferSize;
+	private final int readAhead;
+	private final BlockingQueue<ByteBuffer> pool;
+
+	/**
+	 * Create a service with the default executor and buffer pool.
+	 * <p>
+	 * The executor is shut down when the service is closed.
+	 * 
+	 * @param crc CRC instance whose lookup tables will be used.
+	 */
+	public AsyncCRCService(CRC<T, U> crc) {
+		this(crc, newDefaultExecutor(), true, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFERS, DEFAULT_READ_AHEAD);
+	}
+
+	/**
+	 * Create a service.
+	 * <p>
+	 * The executor is not shut down when the service is closed.
+	 * 
+	 * @param crc CRC instance whose lookup tables will be used.
+	 * @param executor Executor to run one task per file on.
+	 * @param bufferSize Size of each pooled buffer, in bytes.
+	 * @param buffers Number of pooled buffers, which bounds the number of reads in flight.
+	 * @param readAhead Maximum number of reads in flight for each file.
+	 */
+	public AsyncCRCService(CRC<T, U> crc, Executor executor, int bufferSize, int buffers, int readAhead) {
+		this(crc, executor, false, bufferSize, buffers, readAhead);
+	}
+
+	private AsyncCRCService(CRC<T, U> crc, Executor executor, boolean ownExecutor,
+			int bufferSize, int buffers, int readAhead) {
+		if ((bufferSize < 1) || (buffers < 1) || (readAhead < 1)) {
+			throw new IllegalArgumentException("Buffer size, buffers and read ahead must be positive.");
+		}
+		this.crc = crc;
+		this.executor = executor;
+		this.ownExecutor = ownExecutor;
+		this.bufferSize = bufferSize;
+		this.readAhead = readAhead;
+		this.pool = new ArrayBlockingQueue<>(buffers);
+		for (int i=0; i<buffers; i++) {
+			pool.add(ByteBuffer.allocateDirect(bufferSize));
+		}
+	}
+
+	/**
+	 * Calculate the CRC of a file.
+	 * 
+	 * @param path Path of the file to calculate CRC for.
+	 * @return A future which completes with the CRC of the file, or with
+	 * 		the {@link IOException} which prevented it being read.
+	 */
+	public CompletableFuture<Long> calculate(Path path) {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(compute(path));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Shut down the executor, if it was created by this service.
+	 * <p>
+	 * Files already submitted are still calculated.
+	 */
+	@Override
+	public void close() {
+		if (ownExecutor) {
+			((ExecutorService)executor).shutdown();
+		}
+	}
+
+	/**
+	 * Create an executor which runs each task on a new virtual thread, if
+	 * the JVM supports them (Java 21 or later).  Otherwise, create a fixed
+	 * thread pool with one thread per processor.
+	 * 
+	 * @return A new executor.
+	 */
+	public static ExecutorService newDefaultExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+				Thread thread = new Thread(runnable, "AsyncCRCService");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Calculate the CRC of a file, on the calling thread.
+	 * 
+	 * @param path Path of the file to calculate CRC for.
+	 * @return The CRC of the file.
+	 * @throws IOException If the file could not be read.
+	 */
+	private long compute(Path path) throws IOException {
+		CRCDigest<T, U> digest = crc.newDigest();
+		ArrayDeque<Chunk> inFlight = new ArrayDeque<>(readAhead);
+		try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long next = 0;
+			while ((next < size) || !inFlight.isEmpty()) {
+				// Keep as many reads in flight as buffers allow.
+				while ((next < size) && (inFlight.size() < readAhead)) {
+					ByteBuffer buffer = inFlight.isEmpty() ? pool.take() : pool.poll();
+					if (buffer == null) {
+						break;
+					}
+					buffer.clear();
+					buffer.limit((int)Math.min(size - next, bufferSize));
+					Future<Integer> read;
+					try {
+						read = channel.read(buffer, next);
+					} catch (RuntimeException e) {
+						// Not in flight yet, so return the buffer here.
+						pool.add(buffer);
+						throw e;
+					}
+					inFlight.add(new Chunk(buffer, next, read));
+					next += buffer.limit();
+				}
+				// Hash the oldest chunk once it has completed.  It stays in
+				// flight until then, so its buffer is not returned while a
+				// read may still be writing to it.
+				Chunk chunk = inFlight.element();
+				boolean filled = chunk.complete(channel);
+				inFlight.remove();
+				try {
+					chunk.buffer.flip();
+					digest.update(chunk.buffer);
+				} finally {
+					pool.add(chunk.buffer);
+				}
+				if (!filled) {
+					// The file was truncated while reading.
+					break;
+				}
+			}
+			return digest.getValue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading " + path);
+		} finally {
+			// Return the buffers of any abandoned reads, once they are no longer being written.
+			for (Chunk chunk : inFlight) {
+				chunk.awaitUninterruptibly();
+				pool.add(chunk.buffer);
+			}
+		}
+	}
+
+	/**
+	 * A read in flight.
+	 */
+	private static class Chunk {
+		final ByteBuffer buffer;
+		final long position;
+		/**
+		 * Latest read into the buffer.
+		 */
+		Future<Integer> read;
+
+		Chunk(ByteBuffer buffer, long position, Future<Integer> read) {
+			this.buffer = buffer;
+			this.position = position;
+			this.read = read;
+		}
+
+		/**
+		 * Wait for the read to complete, and fill the rest of the buffer if it was short.
+		 * 
+		 * @param channel Channel the read was made on.
+		 * @return {@code false} if the end of the file was reached before the buffer was filled.
+		 * @throws IOException If the file could not be read.
+		 * @throws InterruptedException If interrupted while waiting.
+		 */
+		boolean complete(AsynchronousFileChannel channel) throws IOException, InterruptedException {
+			int count = await(read);
+			while ((count >= 0) && buffer.hasRemaining()) {
+				read = channel.read(buffer, position + buffer.position());
+				count = await(read);
+			}
+			return count >= 0;
+		}
+
+		/**
+		 * Wait for the latest read to finish with the buffer, however it ends.
+		 * <p>
+		 * Interrupts are held off while waiting, as the read may still be
+		 * writing to the buffer, and the thread's interrupt status is restored
+		 * afterwards.
+		 */
+		void awaitUninterruptibly() {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					read.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException | CancellationException e) {
+					break;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private static int await(Future<Integer> read) throws IOException, InterruptedException {
+			try {
+				return read.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException)e.getCause();
+				}
+				throw new IOException(e.getCause());
+			}
+		}
+	}
+}
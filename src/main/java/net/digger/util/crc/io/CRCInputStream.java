@@ -0,0 +1,129 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.digger.util.crc.CRC;
+import net.digger.util.crc.CRCDigest;
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Input stream which calculates the checksum or CRC of the data read through it.
+ * <p>
+ * Each range returned by {@code read} is passed to the table-driven method
+ * in one call.  Skipped bytes are read and included in the CRC.  Mark and
+ * reset are not supported.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+public class CRCInputStream<T extends Config<U, T>, U extends Computer<T, U>> extends FilterInputStream {
+	private final CRCDigest<T, U> digest;
+	/**
+	 * Buffer for skipped bytes, created on the first skip.
+	 */
+	private byte[] skipBuffer;
+
+	/**
+	 * Create a stream which calculates a CRC of the data read from another stream.
+	 * 
+	 * @param in Stream to read from.
+	 * @param crc CRC instance whose lookup tables will be used.
+	 */
+	public CRCInputStream(InputStream in, CRC<T, U> crc) {
+		super(in);
+		this.digest = crc.newDigest();
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = in.read();
+		if (b != -1) {
+			digest.update(b);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = in.read(b, off, len);
+		if (n > 0) {
+			digest.update(b, off, n);
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		if (skipBuffer == null) {
+			skipBuffer = new byte[512];
+		}
+		byte[] buffer = skipBuffer;
+		long total = 0;
+		while (total < n) {
+			int count = read(buffer, 0, (int)Math.min(n - total, buffer.length));
+			if (count == -1) {
+				break;
+			}
+			total += count;
+		}
+		return total;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("mark/reset not supported");
+	}
+
+	/**
+	 * Get the CRC of the data read so far.
+	 * <p>
+	 * This does not change the state of the stream, so more data may be read afterwards.
+	 * 
+	 * @return The CRC of the data read so far.
+	 */
+	public long getValue() {
+		return digest.getValue();
+	}
+
+	/**
+	 * Get the digest which is updated by this stream.
+	 * 
+	 * @return The digest used by this stream.
+	 */
+	public CRCDigest<T, U> getDigest() {
+		return digest;
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.digger.util.crc.CRC;
+import net.digger.util.crc.CRCDigest;
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Output stream which calculates the checksum or CRC of the data written through it.
+ * <p>
+ * Each range passed to {@code write} is written to the underlying stream in
+ * one call, then passed to the table-driven method in one call.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+public class CRCOutputStream<T extends Config<U, T>, U extends Computer<T, U>> extends FilterOutputStream {
+	private final CRCDigest<T, U> digest;
+
+	/**
+	 * Create a stream which calculates a CRC of the data written to another stream.
+	 * 
+	 * @param out Stream to write to.
+	 * @param crc CRC instance whose lookup tables will be used.
+	 */
+	public CRCOutputStream(OutputStream out, CRC<T, U> crc) {
+		super(out);
+		this.digest = crc.newDigest();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		digest.update(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		digest.update(b, off, len);
+	}
+
+	/**
+	 * Get the CRC of the data written so far.
+	 * <p>
+	 * This does not change the state of the stream, so more data may be written afterwards.
+	 * 
+	 * @return The CRC of the data written so far.
+	 */
+	public long getValue() {
+		return digest.getValue();
+	}
+
+	/**
+	 * Get the digest which is updated by this stream.
+	 * 
+	 * @return The digest used by this stream.
+	 */
+	public CRCDigest<T, U> getDigest() {
+		return digest;
+	}
+}
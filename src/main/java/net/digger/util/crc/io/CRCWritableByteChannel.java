@@ -0,0 +1,95 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import net.digger.util.crc.CRC;
+import net.digger.util.crc.CRCDigest;
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Channel which calculates the checksum or CRC of the data written through it.
+ * <p>
+ * The bytes consumed from the source buffer by each {@code write} are passed
+ * to the table-driven method in one call, so partial writes are handled.
+ * The buffer's position is left as the underlying channel set it.
+ * 
+ * @author walton
+ * 
+ * @param <T> Class of Config instance used by Computer implementation.
+ * @param <U> Class of Computer implementation used by Config instance.
+ */
+public class CRCWritableByteChannel<T extends Config<U, T>, U extends Computer<T, U>> implements WritableByteChannel {
+	private final WritableByteChannel channel;
+	private final CRCDigest<T, U> digest;
+
+	/**
+	 * Create a channel which calculates a CRC of the data written to another channel.
+	 * 
+	 * @param channel Channel to write to.
+	 * @param crc CRC instance whose lookup tables will be used.
+	 */
+	public CRCWritableByteChannel(WritableByteChannel channel, CRC<T, U> crc) {
+		this.channel = channel;
+		this.digest = crc.newDigest();
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		ByteBuffer written = src.duplicate();
+		int n = channel.write(src);
+		if (n > 0) {
+			written.limit(written.position() + n);
+			digest.update(written);
+		}
+		return n;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Get the CRC of the data written so far.
+	 * <p>
+	 * This does not change the state of the channel, so more data may be written afterwards.
+	 * 
+	 * @return The CRC of the data written so far.
+	 */
+	public long getValue() {
+		return digest.getValue();
+	}
+
+	/**
+	 * Get the digest which is updated by this channel.
+	 * 
+	 * @return The digest used by this channel.
+	 */
+	public CRCDigest<T, U> getDigest() {
+		return digest;
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a single large calculation.
+ * <p>
+ * This is the Java 11 version of this class, which records the events.
+ * {@link CRCMetrics} only calls it once it has found the {@code jdk.jfr}
+ * classes, so the library still runs on JVMs without them.  The event is
+ * begun before the calculation and committed after it, on the same thread,
+ * so its duration is the time taken and the recording's threshold applies.
+ * 
+ * @author walton
+ */
+@Name("net.digger.util.crc.Calculation")
+@Label("CRC Calculation")
+@Category("CRC")
+@Description("A checksum or CRC calculation over at least the configured number of bytes")
+final class CRCEvent extends Event {
+	/**
+	 * Event begun on each thread, and not yet committed.
+	 */
+	private static final ThreadLocal<CRCEvent> current = new ThreadLocal<>();
+
+	@Label("Configuration")
+	String config;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	/**
+	 * Check whether events can be recorded.
+	 * 
+	 * @return {@code true}, as events are supported.
+	 */
+	static boolean isSupported() {
+		return true;
+	}
+
+	/**
+	 * Begin an event for a calculation on the current thread, if flight
+	 * recorder is recording them.
+	 * <p>
+	 * This replaces any event left by a calculation which threw an exception.
+	 * 
+	 * @param config Name of the configuration.
+	 */
+	static void begin(String config) {
+		CRCEvent event = new CRCEvent();
+		if (event.isEnabled()) {
+			event.config = config;
+			event.begin();
+			current.set(event);
+		} else {
+			current.remove();
+		}
+	}
+
+	/**
+	 * Commit the event begun on the current thread, if any.
+	 * 
+	 * @param bytes Number of bytes processed.
+	 */
+	static void end(long bytes) {
+		CRCEvent event = current.get();
+		if (event != null) {
+			current.remove();
+			event.end();
+			if (event.shouldCommit()) {
+				event.bytes = bytes;
+				event.commit();
+			}
+		}
+	}
+}
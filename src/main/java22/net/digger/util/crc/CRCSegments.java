@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+
+import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.config.Config;
+
+/**
+ * Calculates checksums and CRCs of {@link MemorySegment}s, using the faster
+ * table-driven method.
+ * <p>
+ * This class is only in the Java 22 section of the multi-release jar, which
+ * is built only with the {@code java22} Maven profile.
+ * Segments are read in place, through {@link ByteBuffer} views of up to
+ * {@value #CHUNK} bytes, so there is no 2 GB limit.  For native segments,
+ * including mapped files and shared memory, the bytes before the first
+ * 8-byte boundary are taken separately, so every word the engine reads is
+ * aligned.  Heap segments over arrays other than {@code byte[]} can't be
+ * viewed as a buffer, and are copied through a small array instead.
+ * <p>
+ * Segments are read from the calling thread, so must be accessible to it.
+ * 
+ * @author walton
+ */
+public final class CRCSegments {
+	/**
+	 * Largest number of bytes to read through one buffer.  A multiple of 8, so
+	 * each view after the first starts on the same alignment.
+	 */
+	private static final long CHUNK = 1L << 30;
+	/**
+	 * Size of the array used to copy segments which can't be viewed as a buffer.
+	 */
+	private static final int COPY_SIZE = 8192;
+
+	private CRCSegments() {}
+
+	/**
+	 * Compute the CRC of a segment using the faster table-driven method.
+	 * 
+	 * @param <T> Class of Config instance used by Computer implementation.
+	 * @param <U> Class of Computer implementation used by Config instance.
+	 * @param crc CRC instance to calculate with.
+	 * @param segment Segment holding the message to calculate CRC for.
+	 * @return The CRC of the message.
+	 */
+	public static <T extends Config<U, T>, U extends Computer<T, U>> long calculate(CRC<T, U> crc, MemorySegment segment) {
+		CRCDigest<T, U> digest = crc.newDigest();
+		update(digest, segment);
+		return digest.getValue();
+	}
+
+	/**
+	 * Update a digest with the bytes of a segment.
+	 * 
+	 * @param digest Digest to update.
+	 * @param segment Segment holding the next part of the message.
+	 */
+	public static void update(CRCDigest<?, ?> digest, MemorySegment segment) {
+		long size = segment.byteSize();
+		long offset = segment.isNative() ? Math.min(-segment.address() & 7, size) : 0;
+		if (offset > 0) {
+			updateChunk(digest, segment.asSlice(0, offset));
+		}
+		for (; offset < size; offset += CHUNK) {
+			updateChunk(digest, segment.asSlice(offset, Math.min(CHUNK, size - offset)));
+		}
+	}
+
+	/**
+	 * Update a digest with a segment small enough for one buffer.
+	 * 
+	 * @param digest Digest to update.
+	 * @param chunk Segment holding the next part of the message.
+	 */
+	private static void updateChunk(CRCDigest<?, ?> digest, MemorySegment chunk) {
+		ByteBuffer view;
+		try {
+			view = chunk.asByteBuffer();
+		} catch (UnsupportedOperationException e) {
+			// A heap segment over an array other than byte[].
+			long size = chunk.byteSize();
+			byte[] buffer = new byte[(int)Math.min(COPY_SIZE, size)];
+			for (long offset=0; offset<size; offset+=buffer.length) {
+				int length = (int)Math.min(buffer.length, size - offset);
+				MemorySegment.copy(chunk, ValueLayout.JAVA_BYTE, offset, buffer, 0, length);
+				digest.update(buffer, 0, length);
+			}
+			return;
+		}
+		digest.update(view);
+	}
+}
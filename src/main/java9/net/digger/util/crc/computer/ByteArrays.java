@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Helpers for reading multi-byte words out of byte arrays.
+ * <p>
+ * This is the Java 9 version of this class, which reads each word with a
+ * single {@link VarHandle} access instead of assembling it from bytes.
+ * 
+ * @author walton
+ */
+final class ByteArrays {
+	private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private ByteArrays() {}
+
+	/**
+	 * Read 8 bytes as a big-endian long.
+	 * 
+	 * @param data Array to read from.
+	 * @param index Index of the first byte.
+	 * @return The 8 bytes, first byte in the most significant position.
+	 */
+	static long getLongBE(byte[] data, int index) {
+		return (long)LONG_BE.get(data, index);
+	}
+
+	/**
+	 * Read 8 bytes as a little-endian long.
+	 * 
+	 * @param data Array to read from.
+	 * @param index Index of the first byte.
+	 * @return The 8 bytes, first byte in the least significant position.
+	 */
+	static long getLongLE(byte[] data, int index) {
+		return (long)LONG_LE.get(data, index);
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import net.digger.util.crc.config.CRCConfig;
+
+/**
+ * Recognizes configurations which the JDK implements itself, usually as a
+ * HotSpot intrinsic using the processor's CRC instructions.
+ * <p>
+ * This is the Java 9 version of this class, which adds {@link CRC32C}.
+ * <p>
+ * Set the system property {@code net.digger.util.crc.intrinsics} to
+ * {@code false} to always use the table engines instead.
+ * 
+ * @author walton
+ */
+final class Intrinsics {
+	/**
+	 * Whether to use the JDK implementations when they match.
+	 */
+	static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("net.digger.util.crc.intrinsics", "true"));
+	/**
+	 * Smallest number of bytes worth appending to an existing register through
+	 * the JDK implementation, since the result must be combined with the register.
+	 */
+	static final int APPEND_THRESHOLD = 4096;
+
+	private Intrinsics() {}
+
+	/**
+	 * Find the JDK checksum whose polynomial and bit order match the given
+	 * configuration.
+	 * <p>
+	 * This only needs to be called once per set of lookup tables.  Since
+	 * configurations sharing the tables may differ in their initial and final
+	 * values, {@link #matchesValues(CRCConfig)} must also be checked before
+	 * each use.
+	 * 
+	 * @param config CRC configuration to use.
+	 * @return Supplier of new JDK checksums, or {@code null} if there is no match.
+	 */
+	static Supplier<Checksum> supplier(CRCConfig config) {
+		if (ENABLED) {
+			if (matches(config, 0x04C11DB7L)) {
+				return CRC32::new;
+			}
+			if (matches(config, 0x1EDC6F41L)) {
+				return CRC32C::new;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Update a JDK checksum created by {@link #supplier(CRCConfig)} with the
+	 * remaining bytes of a buffer.
+	 * 
+	 * @param checksum JDK checksum to update.
+	 * @param buffer Buffer holding the next part of the message.
+	 */
+	static void update(Checksum checksum, ByteBuffer buffer) {
+		checksum.update(buffer);
+	}
+
+	/**
+	 * Check whether a configuration is a reflected 32-bit CRC with the given
+	 * polynomial, so could share lookup tables with a JDK checksum.
+	 * 
+	 * @param config CRC configuration to check.
+	 * @param polynomial Polynomial to match.
+	 * @return {@code true} if the configuration matches.
+	 */
+	static boolean matches(CRCConfig config, long polynomial) {
+		return (config.bits == 32) && (config.polynomial == polynomial)
+				&& config.reflectInputBits && config.reflectOutputBits;
+	}
+
+	/**
+	 * Check whether a configuration matching {@link #supplier(CRCConfig)} also
+	 * has the JDK checksums' initial and final values and byte order, with
+	 * all bits set in the initial and final XOR values.
+	 * 
+	 * @param config CRC configuration to check.
+	 * @return {@code true} if the JDK checksum gives this configuration's CRC.
+	 */
+	static boolean matchesValues(CRCConfig config) {
+		return (config.initialValue == 0xFFFFFFFFL) && (config.finalXORValue == 0xFFFFFFFFL)
+				&& !config.reflectOutputBytes;
+	}
+}
@@ -2,15 +2,68 @@ package net.digger.util.crc;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CheckedInputStream;
+
+import javax.management.ObjectName;
+
 import net.digger.util.crc.CRC;
+import net.digger.util.crc.CRCMetrics;
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.computer.ChecksumComputer;
 import net.digger.util.crc.computer.Computer;
+import net.digger.util.crc.computer.ComputerRegistry;
+import net.digger.util.crc.config.CRCConfig;
+import net.digger.util.crc.config.ChecksumConfig;
 import net.digger.util.crc.config.Config;
+import net.digger.util.crc.io.AsyncCRCService;
+import net.digger.util.crc.io.CRCInputStream;
+import net.digger.util.crc.io.CRCOutputStream;
+import net.digger.util.crc.io.CRCReadableByteChannel;
+import net.digger.util.crc.io.CRCWritableByteChannel;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class CRCTest {
 	private static final String TEST1 = "123456789";
 	private static final String TEST2 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final CRCConfig[] CRC_CONFIGS = {
+		CRC.CRC8_SMBus, CRC.CRC8_Maxim, CRC.CRC8_AUTOSAR,
+		CRC.CRC16, CRC.CRC16_Modbus, CRC.CRC16_CCITT, CRC.CRC16_CCITT_XModem, CRC.CRC16_CCITT_0x1D0F,
+		CRC.CRC16_CCITT_Kermit, CRC.CRC16_DNP, CRC.CRC32, CRC.CRC32C,
+		CRC.CRC64_ECMA, CRC.CRC64_XZ, CRC.CRC64_GO_ISO,
+	};
 	
 	private <T extends Config<U, T>, U extends Computer<T, U>> void testCRC(T config, String str, long crcValue) {
 //		System.out.printf("%s: %s -> 0x%s\n", config.name, str, Long.toHexString(crcValue));
@@ -36,6 +89,26 @@ public class CRCTest {
 		}
 //		System.out.println(Long.toHexString(crc4));
 		assertThat(crc4, equalTo(crcValue));
+
+		CRCDigest<T, U> digest = crc.newDigest();
+		for (byte b : str.getBytes()) {
+			digest.update(b);
+		}
+		assertThat(digest.getValue(), equalTo(crcValue));
+		digest.reset();
+		byte[] bytes = str.getBytes();
+		digest.update(bytes, 0, 5);
+		digest.update(ByteBuffer.wrap(bytes, 5, bytes.length - 5));
+		assertThat(digest.getValue(), equalTo(crcValue));
+		assertThat(digest.getValue(), equalTo(crcValue));
+
+		digest.reset();
+		try (CheckedInputStream in = new CheckedInputStream(new ByteArrayInputStream(bytes), digest)) {
+			while (in.read(new byte[4]) >= 0) {}
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		assertThat(digest.getValue(), equalTo(crcValue));
 	}
 
 	@Test
@@ -56,6 +129,43 @@ public class CRCTest {
 		testCRC(CRC.Checksum32, TEST2, 0x07DF);
 	}
 	
+	@Test
+	public void testCRC8() {
+		testCRC(CRC.CRC8_SMBus, TEST1, 0xF4);
+		testCRC(CRC.CRC8_Maxim, TEST1, 0xA1);
+		testCRC(CRC.CRC8_AUTOSAR, TEST1, 0xDF);
+	}
+
+	@Test
+	public void testSmallWidths() {
+		for (boolean nibbleTables : new boolean[] {false, true}) {
+			testCRC(new CRCConfig("CRC-3 GSM", 3, 0x3, 0x0, 0x7, false, false, false, 8, nibbleTables), TEST1, 0x4);
+			testCRC(new CRCConfig("CRC-4 ITU", 4, 0x3, 0x0, 0x0, true, true, false, 8, nibbleTables), TEST1, 0x7);
+			testCRC(new CRCConfig("CRC-5 USB", 5, 0x05, 0x1F, 0x1F, true, true, false, 8, nibbleTables), TEST1, 0x19);
+			testCRC(new CRCConfig("CRC-7 MMC", 7, 0x09, 0x00, 0x00, false, false, false, 8, nibbleTables), TEST1, 0x75);
+			testCRC(new CRCConfig("CRC-8 Maxim", 8, 0x31, 0x00, 0x00, true, true, false, 8, nibbleTables), TEST1, 0xA1);
+		}
+		Random random = new Random(5);
+		byte[] message = new byte[100];
+		random.nextBytes(message);
+		for (int bits=3; bits<=8; bits++) {
+			for (int flags=0; flags<16; flags++) {
+				CRCConfig config = new CRCConfig("Test", bits, 0x25L & ((1L << bits) - 1), 0x5L, 0x3L,
+						(flags & 1) != 0, (flags & 2) != 0, false, 8, (flags & 8) != 0);
+				CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+				long expected = CRC.calculate(config, message);
+				assertThat(crc.calculate(message), equalTo(expected));
+				ByteBuffer buffer = ByteBuffer.allocateDirect(message.length);
+				buffer.put(message);
+				buffer.flip();
+				assertThat(crc.calculate(buffer), equalTo(expected));
+				long crcA = crc.calculate(message, 0, 37);
+				long crcB = crc.calculate(message, 37, message.length - 37);
+				assertThat(crc.combine(crcA, crcB, message.length - 37), equalTo(expected));
+			}
+		}
+	}
+
 	@Test
 	public void testCRC16() {
 		testCRC(CRC.CRC16, TEST1, 0xBB3D);
@@ -103,4 +213,609 @@ public class CRCTest {
 		testCRC(CRC.CRC32, TEST1, 0xCBF43926L);
 		testCRC(CRC.CRC32, TEST2, 0xABF77822L);
 	}
+
+	@Test
+	public void testCRC32C() {
+		testCRC(CRC.CRC32C, TEST1, 0xE3069283L);
+	}
+
+	@Test
+	public void testCRC64_ECMA() {
+		testCRC(CRC.CRC64_ECMA, TEST1, 0x6C40DF5F0B497347L);
+	}
+
+	@Test
+	public void testCRC64_XZ() {
+		testCRC(CRC.CRC64_XZ, TEST1, 0x995DC9BBDF1939FAL);
+	}
+
+	@Test
+	public void testCRC64_GO_ISO() {
+		testCRC(CRC.CRC64_GO_ISO, TEST1, 0xB90956C775A41001L);
+	}
+
+	@Test
+	public void testIntrinsicAppend() {
+		Random random = new Random(6);
+		byte[] message = new byte[20000];
+		random.nextBytes(message);
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC32, CRC.CRC32C}) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			CRCDigest<CRCConfig, CRCComputer> digest = crc.newDigest();
+			digest.update(message, 0, 3);
+			digest.update(message, 3, 10000);
+			digest.update(ByteBuffer.wrap(message, 10003, message.length - 10003));
+			assertThat(digest.getValue(), equalTo(CRC.calculate(config, message)));
+		}
+	}
+
+	@Test
+	public void testIntrinsicSharedTables() {
+		// JAMCRC shares CRC-32's tables, but not its final XOR value, so must
+		// not use the JDK checksum chosen for CRC-32.
+		CRCConfig jamcrc = new CRCConfig("JAMCRC", 32, 0x04C11DB7L, 0xFFFFFFFFL, 0, true, true, false);
+		CRC<CRCConfig, CRCComputer> crc32 = new CRC<>(CRC.CRC32);
+		CRC<CRCConfig, CRCComputer> crcJam = new CRC<>(jamcrc);
+		assertThat(crcJam.calculate(TEST1.getBytes()), equalTo(0x340BC6D9L));
+		Random random = new Random(9);
+		byte[] message = new byte[10000];
+		random.nextBytes(message);
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC32, jamcrc}) {
+			CRC<CRCConfig, CRCComputer> crc = (config == jamcrc) ? crcJam : crc32;
+			long expected = ComputerRegistry.getSlow(config).slow(config, message);
+			assertThat(config.name, crc.calculate(message), equalTo(expected));
+			assertThat(config.name, crc.calculate(ByteBuffer.wrap(message)), equalTo(expected));
+			CRCDigest<CRCConfig, CRCComputer> digest = crc.newDigest();
+			digest.update(message, 0, 3);
+			digest.update(message, 3, message.length - 3);
+			assertThat(config.name, digest.getValue(), equalTo(expected));
+			byte[][] messages = {message, TEST1.getBytes()};
+			long[] results = new long[2];
+			crc.calculate(messages, results);
+			assertThat(config.name, results[0], equalTo(expected));
+		}
+	}
+
+	@Test
+	public void testSlicing() {
+		Random random = new Random(1);
+		byte[] message = new byte[1000];
+		random.nextBytes(message);
+		for (CRCConfig config : CRC_CONFIGS) {
+			CRCConfig config16 = new CRCConfig(config.name, config.bits, config.polynomial,
+					config.initialValue, config.finalXORValue, config.reflectInputBits,
+					config.reflectOutputBits, config.reflectOutputBytes, 16);
+			CRC<CRCConfig, CRCComputer> crc8 = new CRC<>(config);
+			CRC<CRCConfig, CRCComputer> crc16 = new CRC<>(config16);
+			for (int length=0; length<=message.length; length+=37) {
+				byte[] part = Arrays.copyOf(message, length);
+				long expected = CRC.calculate(config, part);
+				assertThat(config.name, crc8.calculate(part), equalTo(expected));
+				assertThat(config.name, crc16.calculate(part), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testReflection() {
+		Random random = new Random(2);
+		byte[] message = new byte[100];
+		random.nextBytes(message);
+		for (int bits : new int[] {16, 24, 32, 40, 64}) {
+			for (int flags=0; flags<8; flags++) {
+				CRCConfig config = new CRCConfig("Test", bits, 0x42F0E1EBA9EA3693L & (-1L >>> (64 - bits)),
+						0x123456L, 0x654321L, (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0);
+				CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+				long expected = CRC.calculate(config, message);
+				assertThat(crc.calculate(message), equalTo(expected));
+				Long value = null;
+				for (byte b : message) {
+					value = crc.update(value, b);
+				}
+				assertThat(value, equalTo(expected));
+			}
+		}
+	}
+
+	private <T extends Config<U, T>, U extends Computer<T, U>> void testRange(T config) {
+		Random random = new Random(3);
+		byte[] message = new byte[300];
+		random.nextBytes(message);
+		CRC<T, U> crc = new CRC<T, U>(config);
+		for (int offset : new int[] {0, 1, 7, 100}) {
+			for (int length : new int[] {0, 1, 15, 16, 17, 100, 199}) {
+				byte[] part = Arrays.copyOfRange(message, offset, offset + length);
+				long expected = CRC.calculate(config, part);
+				assertThat(config.name, CRC.calculate(config, message, offset, length), equalTo(expected));
+				assertThat(config.name, crc.calculate(message, offset, length), equalTo(expected));
+
+				ByteBuffer heap = ByteBuffer.wrap(message, offset, length);
+				assertThat(config.name, crc.calculate(heap.slice()), equalTo(expected));
+				assertThat(config.name, crc.calculate(heap.asReadOnlyBuffer()), equalTo(expected));
+				assertThat(config.name, CRC.calculate(config, heap), equalTo(expected));
+				assertThat(heap.remaining(), equalTo(0));
+
+				ByteBuffer direct = ByteBuffer.allocateDirect(message.length);
+				direct.put(message).position(offset).limit(offset + length);
+				assertThat(config.name, crc.calculate(direct), equalTo(expected));
+				assertThat(direct.position(), equalTo(offset + length));
+				direct.order(ByteOrder.LITTLE_ENDIAN).position(offset);
+				assertThat(config.name, crc.calculate(direct), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		testRange(CRC.Checksum8);
+		testRange(CRC.Checksum16);
+		testRange(CRC.Checksum32);
+		for (CRCConfig config : CRC_CONFIGS) {
+			testRange(config);
+		}
+	}
+
+	private <T extends Config<U, T>, U extends Computer<T, U>> void testCombine(T config) {
+		Random random = new Random(4);
+		byte[] message = new byte[5000];
+		random.nextBytes(message);
+		CRC<T, U> crc = new CRC<T, U>(config);
+		long expected = crc.calculate(message);
+		for (int split : new int[] {0, 1, 8, 999, 4999, 5000}) {
+			long crcA = crc.calculate(message, 0, split);
+			long crcB = crc.calculate(message, split, message.length - split);
+			assertThat(config.name, crc.combine(crcA, crcB, message.length - split), equalTo(expected));
+			assertThat(config.name, CRC.combine(config, crcA, crcB, message.length - split), equalTo(expected));
+		}
+		try {
+			crc.combine(expected, expected, -1);
+			fail("Expected negative length to fail.");
+		} catch (IllegalArgumentException e) {
+		}
+		for (int threshold : new int[] {1, 7, 64, 5000}) {
+			assertThat(config.name, crc.calculateParallel(message, 0, message.length, threshold), equalTo(expected));
+		}
+		assertThat(config.name, crc.calculateParallel(message), equalTo(expected));
+	}
+
+	@Test
+	public void testCombine() {
+		testCombine(CRC.Checksum8);
+		testCombine(CRC.Checksum16);
+		testCombine(CRC.Checksum32);
+		for (CRCConfig config : CRC_CONFIGS) {
+			testCombine(config);
+		}
+	}
+
+	private <T extends Config<U, T>, U extends Computer<T, U>> void testUpdateRange(T config) {
+		Random random = new Random(12);
+		byte[] message = new byte[5000];
+		random.nextBytes(message);
+		CRC<T, U> crc = new CRC<T, U>(config);
+		long oldCrc = crc.calculate(message);
+		for (int[] range : new int[][] {{0, 1}, {17, 8}, {4990, 10}, {2500, 0}, {0, 5000}}) {
+			byte[] changed = message.clone();
+			byte[] newBytes = new byte[range[1]];
+			random.nextBytes(newBytes);
+			System.arraycopy(newBytes, 0, changed, range[0], range[1]);
+			byte[] oldBytes = Arrays.copyOfRange(message, range[0], range[0] + range[1]);
+			long expected = crc.calculate(changed);
+			assertThat(config.name, crc.updateRange(oldCrc, message.length, range[0], oldBytes, newBytes), equalTo(expected));
+			assertThat(config.name, CRC.updateRange(config, oldCrc, message.length, range[0], oldBytes, newBytes), equalTo(expected));
+		}
+	}
+
+	@Test
+	public void testUpdateRange() {
+		testUpdateRange(CRC.Checksum8);
+		testUpdateRange(CRC.Checksum32);
+		for (CRCConfig config : CRC_CONFIGS) {
+			testUpdateRange(config);
+		}
+		testUpdateRange(new CRCConfig("CRC-5 USB", 5, 0x05, 0x1F, 0x1F, true, true, false));
+		try {
+			CRC.updateRange(CRC.CRC32, 0, 10, 8, new byte[3], new byte[3]);
+			fail("Expected out of range change to fail.");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	private <T extends Config<U, T>, U extends Computer<T, U>> void testBatch(T config) {
+		Random random = new Random(9);
+		byte[] data = new byte[20000];
+		random.nextBytes(data);
+		int count = 103;
+		byte[][] messages = new byte[count][];
+		int[] offsets = new int[count];
+		int[] lengths = new int[count];
+		long[] expected = new long[count];
+		CRC<T, U> crc = new CRC<T, U>(config);
+		for (int i=0; i<count; i++) {
+			offsets[i] = random.nextInt(10000);
+			lengths[i] = (i % 7 == 0) ? i % 5 : 16 + random.nextInt(185);
+			messages[i] = Arrays.copyOfRange(data, offsets[i], offsets[i] + lengths[i]);
+			expected[i] = crc.calculate(messages[i]);
+		}
+		long[] results = new long[count];
+		crc.calculate(messages, results);
+		assertThat(config.name, results, equalTo(expected));
+		results = new long[count];
+		crc.calculate(data, offsets, lengths, results);
+		assertThat(config.name, results, equalTo(expected));
+	}
+
+	@Test
+	public void testBatch() {
+		for (CRCConfig config : CRC_CONFIGS) {
+			testBatch(config);
+		}
+		testBatch(new CRCConfig("CRC-5 USB", 5, 0x05, 0x1F, 0x1F, true, true, false, 8, true));
+		testBatch(CRC.Checksum16);
+		try {
+			new CRC<>(CRC.CRC16).calculate(new byte[10], new int[] {0, 5}, new int[] {5, 6}, new long[2]);
+			fail("Expected out of range message to fail.");
+		} catch (ArrayIndexOutOfBoundsException e) {
+		}
+	}
+
+	@Test
+	public void testVerify() {
+		Random random = new Random(10);
+		for (CRCConfig config : CRC_CONFIGS) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			for (int length : new int[] {0, 1, 9, 100, 5000}) {
+				byte[] frame = new byte[length + config.bytes + 1];
+				random.nextBytes(frame);
+				long value = crc.calculate(frame, 1, length);
+				// Append the CRC in the order its bytes leave the register.
+				boolean littleEndian = config.reflectInputBits != config.reflectOutputBytes;
+				for (int i=0; i<config.bytes; i++) {
+					int shift = littleEndian ? (i * 8) : ((config.bytes - 1 - i) * 8);
+					frame[1 + length + i] = (byte)(value >>> shift);
+				}
+				assertThat(config.name, crc.verify(frame, 1, frame.length - 1), equalTo(true));
+				frame[1 + random.nextInt(frame.length - 1)] ^= 0x10;
+				assertThat(config.name, crc.verify(frame, 1, frame.length - 1), equalTo(false));
+			}
+		}
+		// Kermit's check value is 0x8921 after byte reflection, sent as 0x89 0x21.
+		byte[] frame = Arrays.copyOf(TEST1.getBytes(), 11);
+		frame[9] = (byte)0x89;
+		frame[10] = (byte)0x21;
+		assertThat(new CRC<>(CRC.CRC16_CCITT_Kermit).verify(frame), equalTo(true));
+		try {
+			new CRC<>(CRC.Checksum8).verify(frame);
+			fail("Expected checksum verify to fail.");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			new CRC<>(new CRCConfig("CRC-5 USB", 5, 0x05, 0x1F, 0x1F, true, true, false)).verify(frame);
+			fail("Expected partial byte verify to fail.");
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	@Test
+	public void testRolling() {
+		Random random = new Random(11);
+		byte[] message = new byte[3000];
+		random.nextBytes(message);
+		CRCConfig[] configs = Arrays.copyOf(CRC_CONFIGS, CRC_CONFIGS.length + 1);
+		configs[CRC_CONFIGS.length] = new CRCConfig("CRC-5 USB", 5, 0x05, 0x1F, 0x1F, true, true, false);
+		for (CRCConfig config : configs) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			for (int window : new int[] {1, 16, 48}) {
+				RollingCRC rolling = new RollingCRC(config, window);
+				long value = rolling.start(message, 0);
+				List<Integer> expected = new ArrayList<>();
+				long mask = 0x1B & config.mask;
+				for (int end=window; ; end++) {
+					long windowCRC = crc.calculate(message, end - window, window);
+					assertThat(config.name, rolling.getValue(value), equalTo(windowCRC));
+					if ((windowCRC & mask) == mask) {
+						expected.add(end);
+					}
+					if (end == message.length) {
+						break;
+					}
+					value = rolling.roll(value, message[end - window], message[end]);
+				}
+				List<Integer> boundaries = new ArrayList<>();
+				rolling.scan(message, 0, message.length, mask, boundaries::add);
+				assertThat(config.name, boundaries, equalTo(expected));
+				ByteBuffer buffer = ByteBuffer.allocateDirect(message.length + 1);
+				buffer.put((byte)0).put(message).position(1);
+				List<Integer> shifted = new ArrayList<>();
+				rolling.scan(buffer, mask, index -> shifted.add(index - 1));
+				assertThat(config.name, shifted, equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testMulti() {
+		Random random = new Random(8);
+		byte[] message = new byte[3 * 16384 + 123];
+		random.nextBytes(message);
+		Config<?, ?>[] configs = {CRC.CRC32, CRC.CRC16_CCITT, CRC.Checksum8, CRC.CRC16_Modbus, CRC.CRC64_XZ, CRC.CRC8_SMBus};
+		MultiCRC multi = new MultiCRC(configs);
+		for (int length : new int[] {0, 1, 100, 16384, message.length - 1}) {
+			long[] expected = {
+				new CRC<>(CRC.CRC32).calculate(message, 1, length),
+				new CRC<>(CRC.CRC16_CCITT).calculate(message, 1, length),
+				new CRC<>(CRC.Checksum8).calculate(message, 1, length),
+				new CRC<>(CRC.CRC16_Modbus).calculate(message, 1, length),
+				new CRC<>(CRC.CRC64_XZ).calculate(message, 1, length),
+				new CRC<>(CRC.CRC8_SMBus).calculate(message, 1, length),
+			};
+			assertThat(multi.calculate(message, 1, length), equalTo(expected));
+			ByteBuffer buffer = ByteBuffer.allocateDirect(length + 1);
+			buffer.put((byte)0).put(message, 1, length);
+			buffer.flip();
+			buffer.position(1);
+			assertThat(multi.calculate(buffer), equalTo(expected));
+			assertThat(buffer.remaining(), equalTo(0));
+		}
+		assertThat(multi.calculate(TEST1.getBytes())[0], equalTo(0xCBF43926L));
+	}
+
+	@Test
+	public void testStreams() throws IOException {
+		Random random = new Random(6);
+		byte[] message = new byte[10000];
+		random.nextBytes(message);
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC16, CRC.CRC32C, CRC.CRC64_ECMA}) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			long expected = crc.calculate(message);
+
+			CRCInputStream<CRCConfig, CRCComputer> in = new CRCInputStream<>(new ByteArrayInputStream(message), crc);
+			assertThat(in.read(), equalTo(message[0] & 0xFF));
+			assertThat(in.skip(99), equalTo(99L));
+			assertThat(in.skip(0), equalTo(0L));
+			assertThat(in.skip(-1), equalTo(0L));
+			assertThat(in.skip(1000), equalTo(1000L));
+			byte[] buffer = new byte[777];
+			while (in.read(buffer) != -1) {
+			}
+			assertThat(config.name, in.getValue(), equalTo(expected));
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			CRCOutputStream<CRCConfig, CRCComputer> out = new CRCOutputStream<>(bytes, crc);
+			out.write(message[0]);
+			out.write(message, 1, 4999);
+			assertThat(out.getValue(), equalTo(crc.calculate(message, 0, 5000)));
+			out.write(message, 5000, 5000);
+			assertThat(config.name, out.getValue(), equalTo(expected));
+			assertThat(bytes.toByteArray(), equalTo(message));
+
+			CRCReadableByteChannel<CRCConfig, CRCComputer> readable = new CRCReadableByteChannel<>(
+					Channels.newChannel(new ByteArrayInputStream(message)), crc);
+			ByteBuffer direct = ByteBuffer.allocateDirect(999);
+			while (readable.read(direct) != -1) {
+				direct.clear();
+			}
+			assertThat(config.name, readable.getValue(), equalTo(expected));
+
+			bytes.reset();
+			CRCWritableByteChannel<CRCConfig, CRCComputer> writable = new CRCWritableByteChannel<>(
+					Channels.newChannel(bytes), crc);
+			ByteBuffer source = ByteBuffer.wrap(message);
+			while (source.hasRemaining()) {
+				source.limit(Math.min(source.position() + 1234, message.length));
+				writable.write(source);
+				source.limit(message.length);
+			}
+			assertThat(config.name, writable.getValue(), equalTo(expected));
+			assertThat(bytes.toByteArray(), equalTo(message));
+		}
+	}
+
+	@Test
+	public void testAsync() throws Exception {
+		Random random = new Random(7);
+		CRC<CRCConfig, CRCComputer> crc = new CRC<>(CRC.CRC32C);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try (AsyncCRCService<CRCConfig, CRCComputer> service = new AsyncCRCService<>(crc, executor, 4096, 6, 3)) {
+			List<Path> paths = new ArrayList<>();
+			List<CompletableFuture<Long>> futures = new ArrayList<>();
+			for (int i=0; i<20; i++) {
+				byte[] message = new byte[(i * 1777) % 30000];
+				random.nextBytes(message);
+				Path path = folder.newFile().toPath();
+				Files.write(path, message);
+				paths.add(path);
+				futures.add(service.calculate(path));
+			}
+			for (int i=0; i<paths.size(); i++) {
+				assertThat(futures.get(i).get(), equalTo(crc.calculate(paths.get(i))));
+			}
+			CompletableFuture<Long> missing = service.calculate(folder.getRoot().toPath().resolve("missing"));
+			try {
+				missing.get();
+				fail("Expected missing file to fail.");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause() instanceof NoSuchFileException, equalTo(true));
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// Interrupt tasks part way through a file.  Each either completes or
+		// fails, and the buffers of its abandoned reads must not be reused
+		// before the reads finish.
+		List<Thread> threads = new ArrayList<>();
+		try (AsyncCRCService<CRCConfig, CRCComputer> service = new AsyncCRCService<>(crc, runnable -> {
+					Thread thread = new Thread(runnable);
+					threads.add(thread);
+					thread.start();
+				}, 4096, 6, 3)) {
+			byte[] message = new byte[1 << 20];
+			random.nextBytes(message);
+			Path path = folder.newFile().toPath();
+			Files.write(path, message);
+			long expected = crc.calculate(message);
+			for (int i=0; i<20; i++) {
+				CompletableFuture<Long> interrupted = service.calculate(path);
+				CompletableFuture<Long> other = service.calculate(path);
+				Thread.sleep(i % 3);
+				threads.get(threads.size() - 2).interrupt();
+				try {
+					assertThat(interrupted.get(), equalTo(expected));
+				} catch (ExecutionException e) {
+					assertThat(e.getCause() instanceof IOException, equalTo(true));
+				}
+				assertThat(other.get(), equalTo(expected));
+			}
+		}
+		try (AsyncCRCService<CRCConfig, CRCComputer> service = new AsyncCRCService<>(crc)) {
+			Path path = folder.newFile().toPath();
+			Files.write(path, TEST1.getBytes());
+			assertThat(service.calculate(path).get(), equalTo(0xE3069283L));
+		}
+	}
+
+	@Test
+	public void testFile() throws IOException {
+		Path path = folder.newFile().toPath();
+		Random random = new Random(5);
+		byte[] chunk = new byte[4096];
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			// A sparse file larger than one mapped window.
+			file.setLength(70 << 20);
+			for (long position : new long[] {0, 12345, (64 << 20) - 100, (70 << 20) - chunk.length}) {
+				random.nextBytes(chunk);
+				file.seek(position);
+				file.write(chunk);
+			}
+		}
+		byte[] message = Files.readAllBytes(path);
+		CRC<CRCConfig, CRCComputer> crc = new CRC<>(CRC.CRC32);
+		long expected = crc.calculate(message);
+		assertThat(crc.calculate(path), equalTo(expected));
+		assertThat(crc.calculateParallel(path), equalTo(expected));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			assertThat(crc.calculate(channel, 1000, 5000), equalTo(crc.calculate(message, 1000, 5000)));
+			assertThat(crc.calculate(channel, message.length - 10, 100), equalTo(crc.calculate(message, message.length - 10, 10)));
+			assertThat(crc.calculateParallel(channel, 7, message.length), equalTo(crc.calculate(message, 7, message.length - 7)));
+		}
+	}
+
+	@Test
+	public void testRegistry() {
+		// CCITT variants differ only in initial value, so share tables.
+		assertThat(ComputerRegistry.getFast(CRC.CRC16_CCITT), sameInstance(ComputerRegistry.getFast(CRC.CRC16_CCITT_XModem)));
+		assertThat(ComputerRegistry.getFast(CRC.CRC16_CCITT), not(sameInstance(ComputerRegistry.getFast(CRC.CRC16_CCITT_Kermit))));
+		assertThat(ComputerRegistry.getFast(CRC.Checksum8), sameInstance(ComputerRegistry.getFast(CRC.Checksum32)));
+		assertThat(ComputerRegistry.getSlow(CRC.CRC16), sameInstance(ComputerRegistry.getSlow(CRC.CRC32)));
+	}
+
+	@Test
+	public void testChecksumWords() {
+		Random random = new Random(7);
+		byte[] noise = new byte[5000];
+		random.nextBytes(noise);
+		byte[] ones = new byte[5000];
+		Arrays.fill(ones, (byte)0xFF);
+		byte[] signs = new byte[5000];
+		Arrays.fill(signs, (byte)0x80);
+		byte[] highs = new byte[5000];
+		Arrays.fill(highs, (byte)0x7F);
+		CRC<ChecksumConfig, ChecksumComputer> crc = new CRC<>(CRC.Checksum32);
+		for (byte[] message : new byte[][] {noise, ones, signs, highs}) {
+			for (int length : new int[] {7, 8, 1023, 1024, 1025, 3000, 5000}) {
+				long expected = 0;
+				for (int i=0; i<length; i++) {
+					expected += message[i];
+				}
+				expected &= CRC.Checksum32.mask;
+				assertThat(crc.calculate(message, 0, length), equalTo(expected));
+				ByteBuffer direct = ByteBuffer.allocateDirect(length);
+				direct.put(message, 0, length).flip();
+				assertThat(crc.calculate(direct), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+		// A config of its own, so no other test's calls are counted with it.
+		CRCConfig config = new CRCConfig("Metrics", 32, 0x04C11DB7L, 0xFFFFFFFFL, 0xFFFFFFFFL, false, false, false);
+		CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+		crc.calculate(new byte[100]);
+		crc.newDigest().update(new byte[50], 10, 20);
+		CRC.calculate(config, ByteBuffer.allocate(30));
+		// Characters are counted as their encoded bytes: 9 in UTF-8, and 6 in
+		// UTF-16 with its byte order mark.
+		crc.calculate("h\u00E9llo\u20AC", StandardCharsets.UTF_8);
+		crc.newDigest().update("ab", StandardCharsets.UTF_16);
+		// Batches count as one call, of all their bytes.
+		crc.calculate(new byte[][] {new byte[10], new byte[5]}, new long[2]);
+		crc.calculate(new byte[20], new int[] {0, 4}, new int[] {4, 16}, new long[2]);
+		List<CRCMetrics.Snapshot> snapshots = new ArrayList<>();
+		for (CRCMetrics.Snapshot snapshot : CRCMetrics.snapshot()) {
+			if (snapshot.getName().equals("Metrics")) {
+				snapshots.add(snapshot);
+			}
+		}
+		if (!CRCMetrics.isEnabled()) {
+			assertThat(snapshots.size(), equalTo(0));
+			return;
+		}
+		assertThat(snapshots.size(), equalTo(1));
+		assertThat(snapshots.get(0).getCalls(), equalTo(7L));
+		assertThat(snapshots.get(0).getBytes(), equalTo(200L));
+		ObjectName name = new ObjectName(CRCMetrics.OBJECT_NAME);
+		assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name), equalTo(true));
+		ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Snapshot");
+	}
+
+	@Test
+	public void testHash() {
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC8_Maxim, CRC.CRC16_CCITT, CRC.CRC16_CCITT_Kermit, CRC.CRC32, CRC.CRC64_ECMA}) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			int i = 0x12345678;
+			long a = 0x0123456789ABCDEFL;
+			long b = 0xFEDCBA9876543210L;
+			assertThat(crc.hash(i), equalTo(crc.calculate(ByteBuffer.allocate(4).putInt(0, i))));
+			assertThat(crc.hash(a), equalTo(crc.calculate(ByteBuffer.allocate(8).putLong(0, a))));
+			assertThat(crc.hash(a, b), equalTo(crc.calculate(ByteBuffer.allocate(16).putLong(0, a).putLong(8, b))));
+			ByteBuffer expected = ByteBuffer.allocate(14).order(ByteOrder.LITTLE_ENDIAN);
+			expected.putShort((short)0x1234).putInt(i).order(ByteOrder.BIG_ENDIAN).putLong(a).flip();
+			CRCDigest<CRCConfig, CRCComputer> digest = crc.newDigest().order(ByteOrder.LITTLE_ENDIAN);
+			digest.putShort((short)0x1234).putInt(i).order(ByteOrder.BIG_ENDIAN).putLong(a);
+			assertThat(digest.getValue(), equalTo(crc.calculate(expected)));
+		}
+	}
+
+	@Test
+	public void testCharSequence() {
+		String[] messages = {
+			"", "123456789", "caf\u00E9 \u00FF\u0100", "\u20AC\uFFFD\uD83D\uDE00 end",
+			"lone \uD83D high", "lone \uDE00 low", "trailing \uD83D",
+			String.join("", Collections.nCopies(2000, "caf\u00E9 \uD83D\uDE00 ")),
+		};
+		Charset[] charsets = {
+			StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII,
+			StandardCharsets.UTF_16LE, Charset.forName("windows-1252"),
+		};
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC16_CCITT, CRC.CRC32, CRC.CRC64_XZ}) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			for (String message : messages) {
+				for (Charset charset : charsets) {
+					long expected = crc.calculate(message.getBytes(charset));
+					assertThat(message + " " + charset, crc.calculate(new StringBuilder(message), charset), equalTo(expected));
+					assertThat(message + " " + charset, CharSequences.encodedLength(message, charset),
+							equalTo((long)message.getBytes(charset).length));
+					CRCDigest<CRCConfig, CRCComputer> digest = crc.newDigest();
+					digest.update(message, charset);
+					assertThat(digest.getValue(), equalTo(expected));
+				}
+				CRCDigest<CRCConfig, CRCComputer> digest = crc.newDigest();
+				digest.update(message);
+				assertThat(digest.getValue(), equalTo(crc.calculate(message.getBytes(StandardCharsets.UTF_8))));
+				digest.update(message);
+				assertThat(digest.getValue(), equalTo(crc.calculate((message + message).getBytes(StandardCharsets.UTF_8))));
+			}
+		}
+	}
 }
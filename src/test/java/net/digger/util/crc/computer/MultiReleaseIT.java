@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+import org.junit.Test;
+
+import net.digger.util.crc.CRC;
+import net.digger.util.crc.config.CRCConfig;
+
+// Run by failsafe against the packaged jar, since the unit tests only see
+// the base classes in target/classes and never the Java 9 section.
+public class MultiReleaseIT {
+	@Test
+	public void testVersionedClasses() {
+		assertThat(Intrinsics.class.getResource("Intrinsics.class").toString(), containsString("!/META-INF/versions/9/"));
+		assertThat(ByteArrays.class.getResource("ByteArrays.class").toString(), containsString("!/META-INF/versions/9/"));
+	}
+
+	@Test
+	public void testIntrinsics() {
+		Random random = new Random(9);
+		byte[] message = new byte[10000];
+		random.nextBytes(message);
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC32, CRC.CRC32C}) {
+			Checksum intrinsic = Intrinsics.supplier(config).get();
+			assertThat(config.name, intrinsic.getClass().getName(), equalTo("java.util.zip." + config.name.replace("-", "")));
+			TableEngine engine = TableEngine.create(config);
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			for (int length=0; length<=message.length; length+=101) {
+				long expected = engine.finish(config, engine.update(engine.start(config), message, 0, length));
+				intrinsic.reset();
+				intrinsic.update(message, 0, length);
+				assertThat(config.name, intrinsic.getValue(), equalTo(expected));
+				ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+				buffer.put(message, 0, length).flip();
+				intrinsic.reset();
+				Intrinsics.update(intrinsic, buffer);
+				assertThat(config.name, intrinsic.getValue(), equalTo(expected));
+				assertThat(config.name, crc.calculate(message, 0, length), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testByteArrays() {
+		byte[] data = new byte[16];
+		for (int i=0; i<data.length; i++) {
+			data[i] = (byte)(0xF1 + i);
+		}
+		for (int index=0; index<=8; index++) {
+			long be = 0;
+			long le = 0;
+			for (int i=0; i<8; i++) {
+				be = (be << 8) | (data[index + i] & 0xFF);
+				le |= (data[index + i] & 0xFFL) << (8 * i);
+			}
+			assertThat(ByteArrays.getLongBE(data, index), equalTo(be));
+			assertThat(ByteArrays.getLongLE(data, index), equalTo(le));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc.computer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import net.digger.util.crc.CRC;
+import net.digger.util.crc.config.CRCConfig;
+
+// Run by both surefire executions, so checks that the test-options run, with
+// net.digger.util.crc.specialize set, really uses the specialized engines.
+public class SpecializerTest {
+	@Test
+	public void testSpecialize() {
+		boolean hiddenClasses = Integer.parseInt(System.getProperty("java.specification.version").replaceFirst("^1\\.", "")) >= 15;
+		for (CRCConfig config : new CRCConfig[] {CRC.CRC16_CCITT, CRC.CRC32, CRC.CRC64_ECMA}) {
+			TableEngine engine = TableEngine.create(config);
+			if (Specializer.ENABLED && hiddenClasses) {
+				assertThat(config.name, engine.getClass().getName(), startsWith("net.digger.util.crc.computer.SpecializedEngine/"));
+				TableEngine base = (config.reflectInputBits && config.reflectOutputBits) ? new ReflectedEngine(config) : new ForwardEngine(config);
+				long expected = base.finish(config, base.update(base.start(config), "123456789".getBytes(), 0, 9));
+				long actual = engine.finish(config, engine.update(engine.start(config), "123456789".getBytes(), 0, 9));
+				assertThat(config.name, actual, equalTo(expected));
+			} else if (config.reflectInputBits && config.reflectOutputBits) {
+				assertThat(config.name, engine, instanceOf(ReflectedEngine.class));
+			} else {
+				assertThat(config.name, engine, instanceOf(ForwardEngine.class));
+			}
+		}
+	}
+}
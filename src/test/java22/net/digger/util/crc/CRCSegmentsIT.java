@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2017  David Walton
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.digger.util.crc;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.digger.util.crc.computer.CRCComputer;
+import net.digger.util.crc.config.CRCConfig;
+
+// Compiled only by the java22 profile, and run by failsafe against the
+// packaged jar, which holds CRCSegments in its Java 22 section.
+public class CRCSegmentsIT {
+	private static final CRCConfig[] CONFIGS = {CRC.CRC8_Maxim, CRC.CRC16_CCITT, CRC.CRC32, CRC.CRC32C, CRC.CRC64_ECMA};
+
+	@Test
+	public void testVersionedClass() {
+		assertThat(CRCSegments.class.getResource("CRCSegments.class").toString(), containsString("!/META-INF/versions/22/"));
+	}
+
+	@Test
+	public void testHeapSegment() {
+		Random random = new Random(22);
+		byte[] message = new byte[10000];
+		random.nextBytes(message);
+		for (CRCConfig config : CONFIGS) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			assertThat(config.name, CRCSegments.calculate(crc, MemorySegment.ofArray(message)), equalTo(crc.calculate(message)));
+			MemorySegment slice = MemorySegment.ofArray(message).asSlice(3, 5000);
+			assertThat(config.name, CRCSegments.calculate(crc, slice), equalTo(crc.calculate(message, 3, 5000)));
+		}
+	}
+
+	@Test
+	public void testCopiedSegment() {
+		// Segments over arrays other than byte[] are copied, not viewed.
+		Random random = new Random(22);
+		long[] words = new long[2500];
+		for (int i=0; i<words.length; i++) {
+			words[i] = random.nextLong();
+		}
+		ByteBuffer bytes = ByteBuffer.allocate(words.length * 8).order(ByteOrder.nativeOrder());
+		bytes.asLongBuffer().put(words);
+		byte[] message = bytes.array();
+		for (CRCConfig config : CONFIGS) {
+			CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+			assertThat(config.name, CRCSegments.calculate(crc, MemorySegment.ofArray(words)), equalTo(crc.calculate(message)));
+		}
+	}
+
+	@Test
+	public void testNativeSegment() {
+		Random random = new Random(22);
+		byte[] message = new byte[10000];
+		random.nextBytes(message);
+		try (Arena arena = Arena.ofConfined()) {
+			MemorySegment segment = arena.allocate(message.length, 8);
+			MemorySegment.copy(message, 0, segment, ValueLayout.JAVA_BYTE, 0, message.length);
+			for (CRCConfig config : CONFIGS) {
+				CRC<CRCConfig, CRCComputer> crc = new CRC<>(config);
+				// Every alignment of the start and end.
+				for (int offset=0; offset<16; offset++) {
+					for (int length=0; length<message.length-offset; length+=997) {
+						MemorySegment slice = segment.asSlice(offset, length);
+						assertThat(config.name, CRCSegments.calculate(crc, slice), equalTo(crc.calculate(message, offset, length)));
+					}
+				}
+				CRCDigest<CRCConfig, CRCComputer> digest = crc.newDigest();
+				CRCSegments.update(digest, segment.asSlice(0, 1234));
+				CRCSegments.update(digest, segment.asSlice(1234));
+				assertThat(config.name, digest.getValue(), equalTo(crc.calculate(message)));
+			}
+		}
+	}
+}